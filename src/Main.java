@@ -106,7 +106,11 @@ public class Main {
                 config.errorOutput = isNullOrEmpty(arg) ? "stderr" : arg;
             }
             case "verbose-error" -> config.enableVerboseError = true;
+            case "dfa-lexer" -> config.enableDfaLexer = true;
             case "complete-ast" -> config.enableCompleteAst = true;
+            case "flat-ast" -> config.enableFlatAst = true;
+            case "compact-ast" -> config.enableCompactAst = true;
+            case "parallel" -> config.enableParallel = true;
             case "emit-ast" -> {
                 config.emitAst = true;
                 config.astOutput = isNullOrEmpty(arg) ? "ast.xml" : arg;
@@ -133,6 +137,7 @@ public class Main {
                       --enable-error[=filename] --verbose-error
                       --emit-ast[=filename] --complete-ast
                       --emit-llvm[=filename]
+                      --dfa-lexer --flat-ast --compact-ast --parallel
                       --help
                       --version
                 
@@ -143,6 +148,10 @@ public class Main {
               --emit-ast, -a:       emit ast
               --complete-ast, -c:   complete ast
               --emit-llvm, -i:      emit llvm ir
+              --dfa-lexer:          use table-driven lexer
+              --flat-ast:           search ast through its array view
+              --compact-ast:        remove pass-through expression nodes
+              --parallel:           compile functions concurrently
               --help, -h:           show help
               --version:            show version
                 )";
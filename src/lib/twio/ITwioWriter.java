@@ -12,9 +12,21 @@ public interface ITwioWriter {
     void write(int ch);
     void write(char ch);
     void write(String str);
+    void write(char[] chars, int offset, int count);
     void writeLine(String str);
     void writeLine();
 
+    /**
+     * Push buffered content to the underlying target.
+     */
+    void flush();
+
+    /**
+     * Flush and release the underlying target. Writers that do
+     * not own their target, e.g. stdout, only flush.
+     */
+    void close();
+
     /**
      * This is different from ToMiC, which terminates the stream.
      * It does not terminate the stream.
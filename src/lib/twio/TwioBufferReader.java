@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package lib.twio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reader backed by a plain char array, which is decoded in bulk
+ * at construction. It keeps the same line and column semantics as
+ * {@link TwioReader}, but avoids boxing every character.
+ * <p>
+ * Only the offset is tracked on read and rewind. Line and column are
+ * resolved on demand from a table of line starts, which is built once
+ * on the first query.
+ */
+public class TwioBufferReader implements ITwioReader {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final char[] buffer;
+    private final int total;
+    private int cursor = 0;
+
+    // Offsets right after each '\n', with 0 for the first line.
+    private int[] lineStarts = null;
+    private int lineCount = 0;
+    // Offsets of '\r', which do not count as a column.
+    private int[] returns = null;
+    private int returnCount = 0;
+    // Line of the last query, most queries hit it again.
+    private int lastLine = 0;
+
+    public TwioBufferReader(InputStream stream) {
+        char[] chars = new char[CHUNK_SIZE];
+        int length = 0;
+        Reader reader = new InputStreamReader(stream);
+        try {
+            int count;
+            while ((count = reader.read(chars, length, chars.length - length)) != -1) {
+                length += count;
+                if (length == chars.length) {
+                    chars = Arrays.copyOf(chars, chars.length * 2);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        buffer = chars;
+        total = length;
+    }
+
+    /**
+     * Read directly from the given buffer, no copy is made.
+     * @param buffer source characters
+     * @param length number of valid characters in the buffer
+     */
+    public TwioBufferReader(char[] buffer, int length) {
+        if (length < 0 || length > buffer.length) {
+            throw new IllegalArgumentException("invalid buffer length " + length);
+        }
+        this.buffer = buffer;
+        this.total = length;
+    }
+
+    /**
+     * Get the underlying buffer. Only the first {@link #getLength()}
+     * characters are valid.
+     * @return char[]
+     */
+    public char[] getBuffer() {
+        return buffer;
+    }
+
+    public int getLength() {
+        return total;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < total;
+    }
+
+    @Override
+    public int read() {
+        if (cursor >= total) {
+            return -1;
+        }
+        return buffer[cursor++];
+    }
+
+    @Override
+    public int rewind() {
+        if (cursor <= 0) {
+            return -1;
+        }
+        return buffer[--cursor];
+    }
+
+    @Override
+    public int getLineNo() {
+        return findLine(cursor) + 1;
+    }
+
+    @Override
+    public int getCharNo() {
+        int line = findLine(cursor);
+        int start = lineStarts[line];
+        int column = cursor - start - countReturns(start, cursor);
+
+        // The first line starts at column 1, others at column 0 for '\n'.
+        return (line == 0) ? column + 1 : column;
+    }
+
+    private void buildIndex() {
+        lineStarts = new int[64];
+        returns = new int[16];
+        lineStarts[lineCount++] = 0;
+        for (int i = 0; i < total; i++) {
+            char ch = buffer[i];
+            if (ch == '\n') {
+                if (lineCount == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                }
+                lineStarts[lineCount++] = i + 1;
+            } else if (ch == '\r') {
+                if (returnCount == returns.length) {
+                    returns = Arrays.copyOf(returns, returnCount * 2);
+                }
+                returns[returnCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Find the line that the given offset is on, that is the
+     * last line start not greater than the offset.
+     */
+    private int findLine(int offset) {
+        if (lineStarts == null) {
+            buildIndex();
+        }
+
+        if (isOnLine(offset, lastLine)) {
+            return lastLine;
+        }
+        if (isOnLine(offset, lastLine + 1)) {
+            return ++lastLine;
+        }
+
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        lastLine = low;
+
+        return low;
+    }
+
+    private boolean isOnLine(int offset, int line) {
+        if (line >= lineCount || lineStarts[line] > offset) {
+            return false;
+        }
+        return (line + 1 == lineCount) || (offset < lineStarts[line + 1]);
+    }
+
+    /**
+     * Count '\r' in [begin, end).
+     */
+    private int countReturns(int begin, int end) {
+        if (returnCount == 0) {
+            return 0;
+        }
+        return lowerBound(returns, returnCount, end) - lowerBound(returns, returnCount, begin);
+    }
+
+    private static int lowerBound(int[] array, int size, int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
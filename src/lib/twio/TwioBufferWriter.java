@@ -9,39 +9,85 @@ package lib.twio;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 public class TwioBufferWriter implements ITwioWriter {
-    private final StringBuffer buffer = new StringBuffer();
+    private static final int INITIAL_CAPACITY = 8192;
 
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int length = 0;
 
     @Override
     public void write(int ch) {
-        buffer.append((char) ch);
+        write((char) ch);
     }
 
     @Override
     public void write(char ch) {
-        buffer.append(ch);
+        ensureCapacity(1);
+        buffer[length++] = ch;
     }
 
     @Override
     public void write(String str) {
-        buffer.append(str);
+        int count = str.length();
+        ensureCapacity(count);
+        str.getChars(0, count, buffer, length);
+        length += count;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int count) {
+        ensureCapacity(count);
+        System.arraycopy(chars, offset, buffer, length, count);
+        length += count;
     }
 
     @Override
     public void writeLine(String str) {
-        buffer.append(str);
-        buffer.append('\n');
+        write(str);
+        write('\n');
     }
 
     @Override
     public void writeLine() {
-        buffer.append('\n');
+        write('\n');
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
     }
 
     @Override
     public InputStream yield() {
-        return new ByteArrayInputStream(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        return new ByteArrayInputStream(new String(buffer, 0, length).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get a reader over the written content without copying or
+     * re-encoding it. The reader shares the current buffer, so
+     * later writes are not visible to it.
+     * @return ITwioReader
+     */
+    public ITwioReader toReader() {
+        return new TwioBufferReader(buffer, length);
+    }
+
+    /**
+     * Write the content to another writer.
+     * @param writer the writer to write to
+     */
+    public void writeTo(ITwioWriter writer) {
+        writer.write(buffer, 0, length);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
     }
 }
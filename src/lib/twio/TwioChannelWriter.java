@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package lib.twio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * High-throughput writer for files. Characters are collected in a large
+ * buffer, and only encoded and written to the channel when the buffer is
+ * full, or on flush and close. So the cost depends on the output size,
+ * not on the number of write calls.
+ * Must be closed, otherwise pending content is lost.
+ */
+public class TwioChannelWriter implements ITwioWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes;
+    private boolean closed = false;
+
+    public TwioChannelWriter(String path) throws IOException {
+        this(FileChannel.open(Path.of(path),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE));
+    }
+
+    public TwioChannelWriter(FileChannel channel) {
+        this.channel = channel;
+        this.encoder = Charset.defaultCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocateDirect((int) (BUFFER_SIZE * encoder.maxBytesPerChar()));
+    }
+
+    @Override
+    public void write(int ch) {
+        write((char) ch);
+    }
+
+    @Override
+    public void write(char ch) {
+        if (!chars.hasRemaining()) {
+            drain();
+        }
+        chars.put(ch);
+    }
+
+    @Override
+    public void write(String str) {
+        int offset = 0;
+        int length = str.length();
+        while (offset < length) {
+            if (!chars.hasRemaining()) {
+                drain();
+            }
+            int count = Math.min(chars.remaining(), length - offset);
+            chars.put(str, offset, offset + count);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int count) {
+        while (count > 0) {
+            if (!chars.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(chars.remaining(), count);
+            chars.put(buffer, offset, n);
+            offset += n;
+            count -= n;
+        }
+    }
+
+    @Override
+    public void writeLine(String str) {
+        write(str);
+        write('\n');
+    }
+
+    @Override
+    public void writeLine() {
+        write('\n');
+    }
+
+    @Override
+    public void flush() {
+        drain();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        drain();
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public InputStream yield() {
+        throw new UnsupportedOperationException("yield() is not supported in TwioChannelWriter");
+    }
+
+    /**
+     * Encode all buffered characters and write them to the channel.
+     */
+    private void drain() {
+        if (closed) {
+            throw new IllegalStateException("Writer already closed");
+        }
+
+        chars.flip();
+        try {
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, false);
+                writeBytes();
+                if (result.isUnderflow()) {
+                    break;
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        // A dangling high surrogate may remain, keep it for the next round.
+        chars.compact();
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -8,7 +8,7 @@ package lib.twio;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.IOException;
 
 public class TwioExt {
     private TwioExt() {}
@@ -19,11 +19,11 @@ public class TwioExt {
         }
 
         if (input.equals("stdin")) {
-            return new TwioReader(System.in);
+            return new TwioBufferReader(System.in);
         }
 
         try {
-            return new TwioReader(new FileInputStream(input));
+            return new TwioBufferReader(new FileInputStream(input));
         } catch (FileNotFoundException e) {
             throw new RuntimeException(e);
         }
@@ -41,8 +41,8 @@ public class TwioExt {
         }
 
         try {
-            return new TwioFileWriter(new FileOutputStream(output));
-        } catch (FileNotFoundException e) {
+            return new TwioChannelWriter(output);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
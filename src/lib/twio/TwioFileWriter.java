@@ -32,6 +32,11 @@ public class TwioFileWriter implements ITwioWriter {
         impl.print(str);
     }
 
+    @Override
+    public void write(char[] chars, int offset, int count) {
+        impl.print(String.valueOf(chars, offset, count));
+    }
+
     @Override
     public void writeLine(String str) {
         impl.println(str);
@@ -42,6 +47,19 @@ public class TwioFileWriter implements ITwioWriter {
         impl.println();
     }
 
+    @Override
+    public void flush() {
+        impl.flush();
+    }
+
+    /**
+     * The stream is not owned by this writer, so it is only flushed.
+     */
+    @Override
+    public void close() {
+        impl.flush();
+    }
+
     @Override
     public InputStream yield() {
         throw new UnsupportedOperationException("yield() is not supported in TwioFileWriter");
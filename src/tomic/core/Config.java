@@ -22,8 +22,13 @@ public class Config {
     public String input;
     public String output;
 
+    // lexer
+    public boolean enableDfaLexer;
+
     // AST
     public boolean enableCompleteAst;
+    public boolean enableFlatAst;
+    public boolean enableCompactAst;
     public boolean emitAst;
     public String astOutput;
 
@@ -43,10 +48,14 @@ public class Config {
 
     // Optimization
     public int optimizationLevel;
+    public boolean enableParallel;
 
     public Config() {
         target = TargetTypes.Initial;
+        enableDfaLexer = false;
         enableCompleteAst = false;
+        enableFlatAst = false;
+        enableCompactAst = false;
         emitAst = false;
         emitLlvm = false;
         enableVerboseLlvm = false;
@@ -54,6 +63,7 @@ public class Config {
         enableError = false;
         enableVerboseError = false;
         optimizationLevel = 0;
+        enableParallel = false;
     }
 
     @Override
@@ -62,7 +72,10 @@ public class Config {
                 "\n\ttarget = " + target +
                 ",\n\tinput = '" + input + '\'' +
                 ",\n\toutput = '" + output + '\'' +
+                ",\n\tenableDfaLexer = " + enableDfaLexer +
                 ",\n\tenableCompleteAst = " + enableCompleteAst +
+                ",\n\tenableFlatAst = " + enableFlatAst +
+                ",\n\tenableCompactAst = " + enableCompactAst +
                 ",\n\temitAst = " + emitAst +
                 ",\n\tastOutput = '" + astOutput + '\'' +
                 ",\n\temitLlvm = " + emitLlvm +
@@ -74,6 +87,7 @@ public class Config {
                 ",\n\tenableVerboseError = " + enableVerboseError +
                 ",\n\terrorOutput = '" + errorOutput + '\'' +
                 ",\n\toptimizationLevel = " + optimizationLevel +
+                ",\n\tenableParallel = " + enableParallel +
                 "\n}";
     }
 }
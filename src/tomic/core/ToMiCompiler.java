@@ -6,6 +6,7 @@
 
 package tomic.core;
 
+import lib.twio.ITwioWriter;
 import lib.twio.TwioExt;
 import tomic.lexer.ILexicalAnalyzer;
 import tomic.lexer.ILexicalParser;
@@ -13,6 +14,7 @@ import tomic.lexer.IPreprocessor;
 import tomic.lexer.impl.DefaultLexicalAnalyzer;
 import tomic.lexer.impl.DefaultLexicalParser;
 import tomic.lexer.impl.DefaultPreprocessor;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
 import tomic.lexer.token.ITokenMapper;
 import tomic.lexer.token.impl.DefaultTokenMapper;
 import tomic.llvm.asm.IAsmGenerator;
@@ -46,11 +48,15 @@ import tomic.parser.ast.printer.StandardAstPrinter;
 import tomic.parser.ast.printer.XmlAstPrinter;
 import tomic.parser.impl.DefaultSemanticAnalyzer;
 import tomic.parser.impl.DefaultSemanticParser;
+import tomic.parser.impl.ParallelSemanticAnalyzer;
 import tomic.parser.impl.ResilientSyntacticParser;
 import tomic.utils.StringExt;
 
+import java.util.concurrent.ForkJoinPool;
+
 public class ToMiCompiler {
     private final ToMiCompilerImpl impl = new ToMiCompilerImpl();
+    private ITwioWriter logWriter = null;
 
     public ToMiCompiler configure(Config config) {
         impl.configure(config);
@@ -62,7 +68,7 @@ public class ToMiCompiler {
                 if (StringExt.isNullOrEmpty(config.logOutput)) {
                     service.addSingleton(IDebugLogger.class, DumbLogger.class);
                 } else {
-                    var logWriter = TwioExt.buildWriter(config.logOutput);
+                    logWriter = TwioExt.buildWriter(config.logOutput);
                     var logger = new DefaultLogger().setLevel(LogLevel.DEBUG).setWriter(logWriter);
                     service.addSingleton(IDebugLogger.class, logger);
                 }
@@ -86,6 +92,13 @@ public class ToMiCompiler {
             }
         });
 
+        //////////////////// Parallel
+        impl.configure(service -> {
+            if (config.enableParallel) {
+                service.addSingleton(ForkJoinPool.class, ForkJoinPool.commonPool());
+            }
+        });
+
         //////////////////// Preprocess
         impl.configure(service -> {
             service.addTransient(IPreprocessor.class, DefaultPreprocessor.class);
@@ -93,9 +106,13 @@ public class ToMiCompiler {
 
         //////////////////// Lexical
         impl.configure(service -> {
-            service.addTransient(ITokenMapper.class, DefaultTokenMapper.class)
-                    .addTransient(ILexicalAnalyzer.class, DefaultLexicalAnalyzer.class, ITokenMapper.class)
-                    .addTransient(ILexicalParser.class, DefaultLexicalParser.class, ILexicalAnalyzer.class, IErrorLogger.class, IDebugLogger.class);
+            service.addTransient(ITokenMapper.class, DefaultTokenMapper.class);
+            if (config.enableDfaLexer) {
+                service.addTransient(ILexicalAnalyzer.class, DfaLexicalAnalyzer.class, ITokenMapper.class);
+            } else {
+                service.addTransient(ILexicalAnalyzer.class, DefaultLexicalAnalyzer.class, ITokenMapper.class);
+            }
+            service.addTransient(ILexicalParser.class, DefaultLexicalParser.class, ILexicalAnalyzer.class, IErrorLogger.class, IDebugLogger.class);
         });
 
         //////////////////// Ast Printer
@@ -125,14 +142,24 @@ public class ToMiCompiler {
 
         //////////////////// Semantic
         impl.configure(service -> {
-            service.addTransient(ISemanticAnalyzer.class, DefaultSemanticAnalyzer.class, IErrorLogger.class, IDebugLogger.class);
+            if (config.enableParallel) {
+                service.addTransient(ISemanticAnalyzer.class, ParallelSemanticAnalyzer.class, IErrorLogger.class, IDebugLogger.class, ForkJoinPool.class);
+            } else {
+                service.addTransient(ISemanticAnalyzer.class, DefaultSemanticAnalyzer.class, IErrorLogger.class, IDebugLogger.class);
+            }
             service.addTransient(ISemanticParser.class, DefaultSemanticParser.class, ISemanticAnalyzer.class);
         });
 
         //////////////////// LLVM IR
         impl.configure(service -> {
             service.addTransient(IAsmPrinter.class, VerboseAsmPrinter.class);
-            if (config.optimizationLevel > 0) {
+            if (config.enableParallel) {
+                if (config.optimizationLevel > 0) {
+                    service.addTransient(IAsmGenerator.class, OptimizedAsmGenerator.class, ForkJoinPool.class);
+                } else {
+                    service.addTransient(IAsmGenerator.class, StandardAsmGenerator.class, ForkJoinPool.class);
+                }
+            } else if (config.optimizationLevel > 0) {
                 service.addTransient(IAsmGenerator.class, OptimizedAsmGenerator.class);
             } else {
                 service.addTransient(IAsmGenerator.class, StandardAsmGenerator.class);
@@ -142,13 +169,21 @@ public class ToMiCompiler {
                 case 2 -> service.addTransient(IPassProvider.class, OptimizationPassProvider.class);
                 default -> service.addTransient(IPassProvider.class, BasicPassProvider.class);
             }
-            service.addTransient(PassManager.class, PassManager.class, IPassProvider.class, IDebugLogger.class);
+            if (config.enableParallel) {
+                service.addTransient(PassManager.class, PassManager.class, IPassProvider.class, IDebugLogger.class, ForkJoinPool.class);
+            } else {
+                service.addTransient(PassManager.class, PassManager.class, IPassProvider.class, IDebugLogger.class);
+            }
         });
 
         //////////////////// MIPS
         impl.configure(service -> {
             if (config.optimizationLevel > 0) {
-                service.addTransient(IMipsGenerator.class, OptimizedMipsGenerator.class);
+                if (config.enableParallel) {
+                    service.addTransient(IMipsGenerator.class, OptimizedMipsGenerator.class, ForkJoinPool.class);
+                } else {
+                    service.addTransient(IMipsGenerator.class, OptimizedMipsGenerator.class);
+                }
             } else {
                 service.addTransient(IMipsGenerator.class, StandardMipsGenerator.class);
             }
@@ -158,6 +193,13 @@ public class ToMiCompiler {
     }
 
     public void compile() {
-        impl.compile();
+        try {
+            impl.compile();
+        } finally {
+            // Log may be buffered, make sure it reaches the target.
+            if (logWriter != null) {
+                logWriter.close();
+            }
+        }
     }
 }
@@ -22,6 +22,7 @@ import tomic.parser.ISemanticParser;
 import tomic.parser.ISyntacticParser;
 import tomic.parser.ast.SyntaxTree;
 import tomic.parser.ast.printer.IAstPrinter;
+import tomic.parser.ast.trans.ExpressionChainTransformer;
 import tomic.parser.table.SymbolTable;
 
 import java.util.function.Consumer;
@@ -51,8 +52,8 @@ class ToMiCompilerImpl {
 
     void compile() {
         // Preprocess
-        ITwioWriter[] writer = { null };
-        if (!preprocess(writer)) {
+        ITwioReader[] source = { null };
+        if (!preprocess(source)) {
             logErrors();
             return;
         }
@@ -63,7 +64,7 @@ class ToMiCompilerImpl {
 
         // Syntactic
         SyntaxTree[] ast = { null };
-        if (!syntacticParse(new TwioReader(writer[0].yield()), ast)) {
+        if (!syntacticParse(source[0], ast)) {
             logErrors();
             return;
         }
@@ -94,7 +95,11 @@ class ToMiCompilerImpl {
         }
     }
 
-    private boolean preprocess(ITwioWriter[] outWriter) {
+    /**
+     * Preprocess the input. Unless preprocess is the final target, the
+     * result stays in memory, and the reader handed out shares its buffer.
+     */
+    private boolean preprocess(ITwioReader[] outReader) {
         if (config.target.ordinal() < Config.TargetTypes.Preprocess.ordinal()) {
             return false;
         }
@@ -103,10 +108,11 @@ class ToMiCompilerImpl {
 
         ITwioReader reader = buildReader(config.input);
         ITwioWriter writer;
+        TwioBufferWriter buffer = null;
         if (config.target == Config.TargetTypes.Preprocess) {
             writer = buildWriter(config.output);
         } else {
-            writer = new TwioBufferWriter();
+            writer = buffer = new TwioBufferWriter();
         }
 
         logger.debug("Preprocessing " + config.input + "...");
@@ -114,9 +120,10 @@ class ToMiCompilerImpl {
                 .setReader(reader)
                 .setWriter(writer)
                 .process();
+        writer.close();
         logger.debug("Preprocess done");
 
-        outWriter[0] = writer;
+        outReader[0] = (buffer == null) ? null : buffer.toReader();
 
         return true;
     }
@@ -147,6 +154,14 @@ class ToMiCompilerImpl {
             }
         }
 
+        // A compacted tree is no longer in grammar form, so not when printed.
+        if (config.enableCompactAst && !config.emitAst) {
+            new ExpressionChainTransformer().transform(ast);
+        }
+        if (config.enableFlatAst) {
+            ast.flatten();
+        }
+
         outAst[0] = ast;
 
         return true;
@@ -181,12 +196,16 @@ class ToMiCompilerImpl {
 
     private void outputSyntaxTree(String filename, SyntaxTree tree) {
         var printer = container.resolveRequired(IAstPrinter.class);
-        printer.print(tree, TwioExt.buildWriter(filename));
+        var writer = TwioExt.buildWriter(filename);
+        printer.print(tree, writer);
+        writer.close();
     }
 
     private void outputLlvmAsm(String filename, Module module) {
         var printer = container.resolveRequired(IAsmPrinter.class);
-        printer.print(module, TwioExt.buildWriter(filename));
+        var writer = TwioExt.buildWriter(filename);
+        printer.print(module, writer);
+        writer.close();
     }
 
     private boolean generateLlvmAsm(SyntaxTree ast, SymbolTable table, Module[] outModule) {
@@ -232,6 +251,7 @@ class ToMiCompilerImpl {
 
         var out = TwioExt.buildWriter(config.output);
         container.resolveRequired(IMipsGenerator.class).generate(module, out);
+        out.close();
 
         return true;
     }
@@ -246,9 +266,11 @@ class ToMiCompilerImpl {
         var errorWriter = TwioExt.buildWriter(config.errorOutput);
         if (errorLogger.count() > 0) {
             errorLogger.dumps(errorWriter);
+            errorWriter.close();
             logger.fatal("Compilation completed with " + errorLogger.count() + " errors");
             return false;
         }
+        errorWriter.close();
 
         return true;
     }
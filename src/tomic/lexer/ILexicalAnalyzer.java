@@ -8,9 +8,21 @@ package tomic.lexer;
 
 import lib.twio.ITwioReader;
 import tomic.lexer.token.Token;
+import tomic.lexer.token.TokenBuffer;
+import tomic.lexer.token.TokenTypes;
 
 public interface ILexicalAnalyzer {
     void setReader(ITwioReader reader);
 
     Token next();
+
+    /**
+     * Append the next token to the buffer, instead of returning it.
+     * @return type of the appended token
+     */
+    default TokenTypes next(TokenBuffer buffer) {
+        Token token = next();
+        buffer.add(token);
+        return token.type;
+    }
 }
@@ -10,19 +10,22 @@ import lib.twio.ITwioReader;
 import tomic.lexer.ILexicalAnalyzer;
 import tomic.lexer.ILexicalParser;
 import tomic.lexer.token.Token;
+import tomic.lexer.token.TokenBuffer;
 import tomic.lexer.token.TokenTypes;
 import tomic.logger.debug.IDebugLogger;
 import tomic.logger.error.ErrorTypes;
 import tomic.logger.error.IErrorLogger;
 
-import java.util.ArrayList;
-
+/**
+ * Tokens are kept in a compact {@link TokenBuffer}, and the Token objects
+ * are only created when they are requested.
+ */
 public class DefaultLexicalParser implements ILexicalParser {
     private final ILexicalAnalyzer analyzer;
     private final IErrorLogger errorLogger;
     private final IDebugLogger logger;
 
-    private final ArrayList<Token> tokens;
+    private final TokenBuffer tokens;
     private int cursor;
 
     public DefaultLexicalParser(ILexicalAnalyzer analyzer, IErrorLogger errorLogger, IDebugLogger logger) {
@@ -30,7 +33,7 @@ public class DefaultLexicalParser implements ILexicalParser {
         this.errorLogger = errorLogger;
         this.logger = logger;
 
-        tokens = new ArrayList<>();
+        tokens = new TokenBuffer();
         cursor = 0;
     }
 
@@ -51,18 +54,20 @@ public class DefaultLexicalParser implements ILexicalParser {
     @Override
     public Token next() {
         if (cursor == tokens.size()) {
-            Token token = analyzer.next();
-            while (token.type == TokenTypes.UNKNOWN) {
+            TokenTypes type = analyzer.next(tokens);
+            while (type == TokenTypes.UNKNOWN) {
+                Token token = tokens.get(cursor);
+                tokens.removeLast();
                 logUnexpectedToken(token);
                 raiseUnexpectedTokenError(token);
-                token = analyzer.next();
+                type = analyzer.next(tokens);
             }
 
-            if (token.type == TokenTypes.TERMINATOR) {
+            if (type == TokenTypes.TERMINATOR) {
+                Token token = tokens.get(cursor);
+                tokens.removeLast();
                 return token;
             }
-
-            tokens.add(token);
         }
 
         return tokens.get(cursor++);
@@ -8,6 +8,7 @@ package tomic.lexer.impl;
 
 import lib.twio.ITwioReader;
 import lib.twio.ITwioWriter;
+import lib.twio.TwioBufferReader;
 import tomic.lexer.IPreprocessor;
 import tomic.utils.Constants;
 
@@ -16,6 +17,7 @@ public class DefaultPreprocessor implements IPreprocessor {
     private ITwioWriter writer;
     private final State state = new State();
     private static final char FILLING = ' ';
+    private static final char[] FILLINGS = " ".repeat(64).toCharArray();
 
     @Override
     public DefaultPreprocessor setReader(ITwioReader reader) {
@@ -45,6 +47,11 @@ public class DefaultPreprocessor implements IPreprocessor {
             throw new IllegalStateException("Reader or writer not set");
         }
 
+        if (reader instanceof TwioBufferReader bufferReader) {
+            processBuffer(bufferReader.getBuffer(), bufferReader.getLength());
+            return;
+        }
+
         int ch;
         do {
             ch = reader.read(); // EOF is valid here!
@@ -54,6 +61,64 @@ public class DefaultPreprocessor implements IPreprocessor {
         } while (ch != Constants.EOF);
     }
 
+    /**
+     * Same as the per-character loop, but code and quoted spans are
+     * copied in bulk, and line comments are filled in bulk.
+     */
+    private void processBuffer(char[] buffer, int length) {
+        int i = 0;
+        while (i < length) {
+            int end = i;
+            switch (state.type) {
+                case ANY -> {
+                    while (end < length && !isSpecial(buffer[end])) {
+                        end++;
+                    }
+                    if (end > i) {
+                        writer.write(buffer, i, end - i);
+                    }
+                }
+                case QUOTE -> {
+                    while (end < length && buffer[end] != state.value && buffer[end] != '\r') {
+                        end++;
+                    }
+                    if (end > i) {
+                        writer.write(buffer, i, end - i);
+                    }
+                }
+                case LINE_COMMENT -> {
+                    while (end < length && buffer[end] != '\n' && buffer[end] != '\r') {
+                        end++;
+                    }
+                    fill(end - i);
+                }
+                default -> {
+                }
+            }
+
+            if (end < length) {
+                char ch = buffer[end++];
+                if (ch != '\r') {
+                    processImpl(ch);
+                }
+            }
+            i = end;
+        }
+        processImpl(Constants.EOF);
+    }
+
+    private boolean isSpecial(char ch) {
+        return ch == '/' || ch == '\'' || ch == '"' || ch == '#' || ch == '\r';
+    }
+
+    private void fill(int count) {
+        while (count > 0) {
+            int n = Math.min(count, FILLINGS.length);
+            writer.write(FILLINGS, 0, n);
+            count -= n;
+        }
+    }
+
     private void processImpl(int ch) {
         switch (state.type) {
             case ANY -> processAny(ch);
@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.lexer.impl;
+
+import lib.twio.ITwioReader;
+import tomic.lexer.ILexicalAnalyzer;
+import tomic.lexer.token.ITokenMapper;
+import tomic.lexer.token.Token;
+import tomic.lexer.token.TokenBuffer;
+import tomic.lexer.token.TokenTypes;
+import tomic.utils.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Table-driven lexical analyzer. Each character is classified once by a
+ * 128-entry class table, and then drives a single transition matrix. It
+ * reads the input in one forward pass with one character of lookahead,
+ * and never rewinds the reader.
+ * <p>
+ * It produces exactly the same tokens as {@link DefaultLexicalAnalyzer}.
+ */
+public class DfaLexicalAnalyzer implements ILexicalAnalyzer {
+    // Character classes.
+    private static final int C_SPACE = 0;           // ' ', a normal character in string
+    private static final int C_WHITESPACE = 1;      // \t \r \n \f
+    private static final int C_DIGIT = 2;
+    private static final int C_LETTER = 3;          // letters except n and d, and '_'
+    private static final int C_LETTER_N = 4;        // 'n', for "\n" in string
+    private static final int C_LETTER_D = 5;        // 'd', for "%d" in string
+    private static final int C_QUOTE = 6;           // "
+    private static final int C_BACKSLASH = 7;
+    private static final int C_SINGLE_OP = 8;       // + - * /
+    private static final int C_PERCENT = 9;         // %
+    private static final int C_AMPERSAND = 10;      // &
+    private static final int C_BAR = 11;            // |
+    private static final int C_EQUAL = 12;          // =
+    private static final int C_LESS = 13;           // <
+    private static final int C_GREATER = 14;        // >
+    private static final int C_NOT = 15;            // !
+    private static final int C_DELIMITER = 16;      // , ; ( ) [ ] { }
+    private static final int C_OTHER = 17;          // other characters, normal in string
+    private static final int C_ILLEGAL = 18;        // other characters, illegal in string
+    private static final int C_UNICODE_LETTER = 19;
+    private static final int C_UNICODE_DIGIT = 20;  // can only continue an identifier
+    private static final int C_UNICODE_OTHER = 21;
+    private static final int C_EOF = 22;
+    private static final int CLASS_COUNT = 23;
+
+    // States.
+    private static final int S_START = 0;
+    private static final int S_NUMBER = 1;
+    private static final int S_IDENTIFIER = 2;
+    private static final int S_BAD = 3;             // malformed number or identifier
+    private static final int S_STRING = 4;
+    private static final int S_STRING_BACKSLASH = 5;
+    private static final int S_STRING_PERCENT = 6;
+    private static final int S_AMPERSAND = 7;
+    private static final int S_BAR = 8;
+    private static final int S_EQUAL = 9;
+    private static final int S_LESS = 10;
+    private static final int S_GREATER = 11;
+    private static final int S_NOT = 12;
+    private static final int S_OPERATOR = 13;       // complete operator or delimiter
+    private static final int S_UNKNOWN = 14;        // single unknown character
+    private static final int STATE_COUNT = 15;
+
+    // Actions, stored above the next state in the transition matrix.
+    private static final int A_SHIFT = 0;           // append lookahead and move on
+    private static final int A_SKIP = 1;            // drop lookahead, only in start state
+    private static final int A_ACCEPT = 2;          // emit token, keep lookahead
+    private static final int A_SHIFT_ACCEPT = 3;    // append lookahead, then emit token
+    private static final int A_SHIFT_ERROR = 4;     // append lookahead and mark error
+    private static final int A_REDO_ERROR = 5;      // mark error, re-run lookahead in next state
+    private static final int A_NEW_LINE = 6;        // turn "\n" into a new line character
+    private static final int A_ERROR_ACCEPT = 7;    // mark error, then emit token
+    private static final int A_TERMINATE = 8;       // emit terminator
+    private static final int ACTION_SHIFT = 8;
+
+    private static final byte[] CLASSES = new byte[128];
+    private static final int[][] TRANSITIONS = new int[STATE_COUNT][CLASS_COUNT];
+
+    private static final int NONE = -2;
+
+    private final ITokenMapper mapper;
+    private ITwioReader reader;
+    private int lookahead = NONE;
+
+    private final TokenTypes[][] operators = new TokenTypes[2][128];
+
+    // The token being scanned.
+    private char[] lexeme = new char[64];
+    private int length;
+    private int lineNo;
+    private int charNo;
+    private int id;
+    private boolean isKeyword;
+
+    public DfaLexicalAnalyzer(ITokenMapper mapper) {
+        this.mapper = mapper;
+        for (var type : TokenTypes.values()) {
+            var text = mapper.lexeme(type);
+            if (text != null && text.length() <= 2 && !Character.isLetter(text.charAt(0))) {
+                operators[text.length() - 1][text.charAt(0)] = type;
+            }
+        }
+    }
+
+    @Override
+    public void setReader(ITwioReader reader) {
+        this.reader = reader;
+        this.lookahead = NONE;
+    }
+
+    @Override
+    public Token next() {
+        TokenTypes type = scan();
+        String text;
+        if (type == TokenTypes.IDENTIFIER) {
+            return new Token(type, mapper.identifier(id), lineNo, charNo, id);
+        } else if (isKeyword) {
+            text = mapper.lexeme(type);
+        } else {
+            text = new String(lexeme, 0, length);
+        }
+        return new Token(type, text, lineNo, charNo);
+    }
+
+    @Override
+    public TokenTypes next(TokenBuffer buffer) {
+        TokenTypes type = scan();
+        if (type == TokenTypes.IDENTIFIER) {
+            buffer.addIdentifier(id, mapper.identifier(id), lineNo, charNo);
+        } else {
+            buffer.add(type, lexeme, 0, length, lineNo, charNo);
+        }
+        return type;
+    }
+
+    /**
+     * Scan the next token, leaving its text in lexeme and its
+     * position in lineNo and charNo.
+     * @return type of the token
+     */
+    private TokenTypes scan() {
+        if (lookahead == NONE) {
+            lookahead = reader.read();
+        }
+
+        int state = S_START;
+        boolean error = false;
+        length = 0;
+        lineNo = 0;
+        charNo = 0;
+        isKeyword = false;
+
+        while (true) {
+            int entry = TRANSITIONS[state][classOf(lookahead)];
+            int next = entry & ((1 << ACTION_SHIFT) - 1);
+            int action = entry >>> ACTION_SHIFT;
+
+            if (state == S_START && action != A_SKIP) {
+                // The lookahead is always the last character read.
+                lineNo = reader.getLineNo();
+                charNo = reader.getCharNo();
+            }
+
+            switch (action) {
+                case A_SHIFT -> shift();
+                case A_SKIP -> lookahead = reader.read();
+                case A_ACCEPT -> {
+                    return accept(state, error);
+                }
+                case A_SHIFT_ACCEPT -> {
+                    shift();
+                    return accept(next, error);
+                }
+                case A_SHIFT_ERROR -> {
+                    shift();
+                    error = true;
+                }
+                case A_REDO_ERROR -> error = true;
+                case A_NEW_LINE -> {
+                    lexeme[length - 1] = '\n';
+                    lookahead = reader.read();
+                }
+                case A_ERROR_ACCEPT -> {
+                    return accept(state, true);
+                }
+                case A_TERMINATE -> {
+                    return TokenTypes.TERMINATOR;
+                }
+                default -> throw new IllegalStateException("Unknown lexical action " + action);
+            }
+            state = next;
+        }
+    }
+
+    private void shift() {
+        if (length == lexeme.length) {
+            lexeme = Arrays.copyOf(lexeme, length * 2);
+        }
+        lexeme[length++] = (char) lookahead;
+        lookahead = reader.read();
+    }
+
+    private TokenTypes accept(int state, boolean error) {
+        if (state == S_IDENTIFIER) {
+            var keyword = mapper.keyword(lexeme, 0, length);
+            if (keyword != TokenTypes.UNKNOWN) {
+                isKeyword = true;
+                return keyword;
+            }
+            id = mapper.intern(lexeme, 0, length);
+            return TokenTypes.IDENTIFIER;
+        }
+
+        return switch (state) {
+            case S_NUMBER -> TokenTypes.INTEGER;
+            case S_STRING -> error ? TokenTypes.UNKNOWN : TokenTypes.FORMAT;
+            case S_BAD, S_UNKNOWN -> TokenTypes.UNKNOWN;
+            default -> operator();
+        };
+    }
+
+    /**
+     * Operators and delimiters have one or two characters, and the
+     * two-character ones all start with different characters.
+     */
+    private TokenTypes operator() {
+        char first = lexeme[0];
+        if (length > 2 || first >= 128) {
+            return TokenTypes.UNKNOWN;
+        }
+        var candidate = operators[length - 1][first];
+        if (candidate == null || (length == 2 && mapper.lexeme(candidate).charAt(1) != lexeme[1])) {
+            return TokenTypes.UNKNOWN;
+        }
+        return candidate;
+    }
+
+    private static int classOf(int ch) {
+        if (ch == Constants.EOF) {
+            return C_EOF;
+        }
+        if (ch < 128) {
+            return CLASSES[ch];
+        }
+        if (Character.isLetter(ch)) {
+            return C_UNICODE_LETTER;
+        }
+        if (Character.isLetterOrDigit(ch)) {
+            return C_UNICODE_DIGIT;
+        }
+        return C_UNICODE_OTHER;
+    }
+
+    private static int entry(int action, int next) {
+        return (action << ACTION_SHIFT) | next;
+    }
+
+    private static void set(int state, int[] classes, int action, int next) {
+        for (int c : classes) {
+            TRANSITIONS[state][c] = entry(action, next);
+        }
+    }
+
+    private static void setAll(int state, int action, int next) {
+        Arrays.fill(TRANSITIONS[state], entry(action, next));
+    }
+
+    static {
+        // Character classes, same as the lexical tasks and Constants.
+        for (int ch = 0; ch < 128; ch++) {
+            int c;
+            if (Constants.WHITESPACES.indexOf(ch) != -1) {
+                c = (ch == ' ') ? C_SPACE : C_WHITESPACE;
+            } else if (Constants.DIGITS.indexOf(ch) != -1) {
+                c = C_DIGIT;
+            } else if (ch == 'n') {
+                c = C_LETTER_N;
+            } else if (ch == 'd') {
+                c = C_LETTER_D;
+            } else if (Character.isLetter(ch) || ch == '_') {
+                c = C_LETTER;
+            } else if (Constants.DELIMITERS.indexOf(ch) != -1) {
+                c = C_DELIMITER;
+            } else {
+                c = switch (ch) {
+                    case '"' -> C_QUOTE;
+                    case '\\' -> C_BACKSLASH;
+                    case '+', '-', '*', '/' -> C_SINGLE_OP;
+                    case '%' -> C_PERCENT;
+                    case '&' -> C_AMPERSAND;
+                    case '|' -> C_BAR;
+                    case '=' -> C_EQUAL;
+                    case '<' -> C_LESS;
+                    case '>' -> C_GREATER;
+                    case '!' -> C_NOT;
+                    // Normal characters in format string are 32, 33, 40-91 and 93-126.
+                    default -> (ch == 32 || ch == 33 || (40 <= ch && ch <= 126 && ch != 92)) ? C_OTHER : C_ILLEGAL;
+                };
+            }
+            CLASSES[ch] = (byte) c;
+        }
+
+        final int[] letters = { C_LETTER, C_LETTER_N, C_LETTER_D, C_UNICODE_LETTER };
+        final int[] word = { C_DIGIT, C_LETTER, C_LETTER_N, C_LETTER_D, C_UNICODE_LETTER, C_UNICODE_DIGIT };
+        // Characters that end a number or an identifier.
+        final int[] ends = {
+                C_SPACE, C_WHITESPACE, C_DELIMITER, C_EOF,
+                C_SINGLE_OP, C_PERCENT, C_AMPERSAND, C_BAR, C_EQUAL, C_LESS, C_GREATER, C_NOT };
+        final int[] unknowns = { C_BACKSLASH, C_OTHER, C_ILLEGAL, C_UNICODE_DIGIT, C_UNICODE_OTHER };
+
+        // Start
+        set(S_START, new int[]{ C_SPACE, C_WHITESPACE }, A_SKIP, S_START);
+        set(S_START, new int[]{ C_EOF }, A_TERMINATE, S_START);
+        set(S_START, new int[]{ C_DIGIT }, A_SHIFT, S_NUMBER);
+        set(S_START, letters, A_SHIFT, S_IDENTIFIER);
+        set(S_START, new int[]{ C_QUOTE }, A_SHIFT, S_STRING);
+        set(S_START, new int[]{ C_SINGLE_OP, C_PERCENT, C_DELIMITER }, A_SHIFT_ACCEPT, S_OPERATOR);
+        set(S_START, new int[]{ C_AMPERSAND }, A_SHIFT, S_AMPERSAND);
+        set(S_START, new int[]{ C_BAR }, A_SHIFT, S_BAR);
+        set(S_START, new int[]{ C_EQUAL }, A_SHIFT, S_EQUAL);
+        set(S_START, new int[]{ C_LESS }, A_SHIFT, S_LESS);
+        set(S_START, new int[]{ C_GREATER }, A_SHIFT, S_GREATER);
+        set(S_START, new int[]{ C_NOT }, A_SHIFT, S_NOT);
+        set(S_START, unknowns, A_SHIFT_ACCEPT, S_UNKNOWN);
+
+        // Number, anything but digits before an end makes it malformed.
+        setAll(S_NUMBER, A_SHIFT, S_BAD);
+        set(S_NUMBER, new int[]{ C_DIGIT }, A_SHIFT, S_NUMBER);
+        set(S_NUMBER, ends, A_ACCEPT, S_START);
+
+        // Identifier
+        setAll(S_IDENTIFIER, A_SHIFT, S_BAD);
+        set(S_IDENTIFIER, word, A_SHIFT, S_IDENTIFIER);
+        set(S_IDENTIFIER, ends, A_ACCEPT, S_START);
+
+        // Malformed number or identifier, swallow until an end.
+        setAll(S_BAD, A_SHIFT, S_BAD);
+        set(S_BAD, ends, A_ACCEPT, S_START);
+
+        // Format string
+        setAll(S_STRING, A_SHIFT, S_STRING);
+        set(S_STRING, new int[]{ C_WHITESPACE, C_AMPERSAND, C_ILLEGAL,
+                C_UNICODE_LETTER, C_UNICODE_DIGIT, C_UNICODE_OTHER }, A_SHIFT_ERROR, S_STRING);
+        set(S_STRING, new int[]{ C_QUOTE }, A_SHIFT_ACCEPT, S_STRING);
+        set(S_STRING, new int[]{ C_BACKSLASH }, A_SHIFT, S_STRING_BACKSLASH);
+        set(S_STRING, new int[]{ C_PERCENT }, A_SHIFT, S_STRING_PERCENT);
+        set(S_STRING, new int[]{ C_EOF }, A_ERROR_ACCEPT, S_START);
+
+        setAll(S_STRING_BACKSLASH, A_REDO_ERROR, S_STRING);
+        set(S_STRING_BACKSLASH, new int[]{ C_LETTER_N }, A_NEW_LINE, S_STRING);
+
+        setAll(S_STRING_PERCENT, A_REDO_ERROR, S_STRING);
+        set(S_STRING_PERCENT, new int[]{ C_LETTER_D }, A_SHIFT, S_STRING);
+
+        // Operators of one or two characters.
+        setAll(S_AMPERSAND, A_ACCEPT, S_START);
+        set(S_AMPERSAND, new int[]{ C_AMPERSAND }, A_SHIFT_ACCEPT, S_OPERATOR);
+        setAll(S_BAR, A_ACCEPT, S_START);
+        set(S_BAR, new int[]{ C_BAR }, A_SHIFT_ACCEPT, S_OPERATOR);
+        setAll(S_EQUAL, A_ACCEPT, S_START);
+        set(S_EQUAL, new int[]{ C_EQUAL }, A_SHIFT_ACCEPT, S_OPERATOR);
+        for (int state : new int[]{ S_LESS, S_GREATER, S_NOT }) {
+            setAll(state, A_ACCEPT, S_START);
+            set(state, new int[]{ C_EQUAL }, A_SHIFT_ACCEPT, S_OPERATOR);
+        }
+    }
+}
@@ -13,7 +13,10 @@ import tomic.lexer.token.TokenTypes;
 import tomic.utils.Constants;
 import tomic.utils.StringExt;
 
+import java.util.Arrays;
+
 public class IdentifierLexicalTask extends LexicalTask {
+    private char[] lexeme = new char[64];
     public IdentifierLexicalTask(ITokenMapper mapper) {
         super(mapper);
     }
@@ -36,35 +39,43 @@ public class IdentifierLexicalTask extends LexicalTask {
         int ch = reader.read();
         int lineNo = reader.getLineNo();
         int charNo = reader.getCharNo();
-        StringBuilder lexeme = new StringBuilder();
+        int length = 0;
 
         while (ch != Constants.EOF && (Character.isLetterOrDigit(ch) || ch == '_')) {
-            lexeme.append((char) ch);
+            length = append(length, ch);
             ch = reader.read();
         }
 
         if (!endsWith(ch)) {
             while (!endsWith(ch)) {
-                lexeme.append((char) ch);
+                length = append(length, ch);
                 ch = reader.read();
             }
             if (ch != Constants.EOF) {
                 reader.rewind();
             }
 
-            return new Token(TokenTypes.UNKNOWN, lexeme.toString(), lineNo, charNo);
+            return new Token(TokenTypes.UNKNOWN, new String(lexeme, 0, length), lineNo, charNo);
         }
 
         if (ch != Constants.EOF) {
             reader.rewind();
         }
 
-        String lexemeString = lexeme.toString();
-        var token = new Token(mapper.type(lexemeString), lexemeString, lineNo, charNo);
-        if (token.type == TokenTypes.UNKNOWN) {
-            token.type = TokenTypes.IDENTIFIER;
+        var type = mapper.keyword(lexeme, 0, length);
+        if (type != TokenTypes.UNKNOWN) {
+            return new Token(type, mapper.lexeme(type), lineNo, charNo);
         }
 
-        return token;
+        int id = mapper.intern(lexeme, 0, length);
+        return new Token(TokenTypes.IDENTIFIER, mapper.identifier(id), lineNo, charNo, id);
+    }
+
+    private int append(int length, int ch) {
+        if (length == lexeme.length) {
+            lexeme = Arrays.copyOf(lexeme, length * 2);
+        }
+        lexeme[length] = (char) ch;
+        return length + 1;
     }
 }
@@ -14,4 +14,22 @@ public interface ITokenMapper {
     String description(TokenTypes type);
 
     boolean isKeyword(String lexeme);
+
+    /**
+     * Get the keyword type of the characters in the given range,
+     * without allocating a String.
+     * @return keyword type, or UNKNOWN if it is not a keyword
+     */
+    TokenTypes keyword(char[] buffer, int offset, int length);
+
+    /**
+     * Intern an identifier for the current compilation.
+     * @return dense id of the identifier
+     */
+    int intern(char[] buffer, int offset, int length);
+
+    /**
+     * Get the canonical String of an interned identifier.
+     */
+    String identifier(int id);
 }
@@ -13,12 +13,18 @@ public class Token {
     public String lexeme;   // The actual string of the token.
     public int lineNo;  // The line number of the token.
     public int charNo;  // The character number of the token.
+    public int id;      // Interned id of identifiers, -1 for others.
 
     public Token(TokenTypes type, String lexeme, int lineNo, int charNo) {
+        this(type, lexeme, lineNo, charNo, -1);
+    }
+
+    public Token(TokenTypes type, String lexeme, int lineNo, int charNo, int id) {
         this.type = type;
         this.lexeme = lexeme;
         this.lineNo = lineNo;
         this.charNo = charNo;
+        this.id = id;
     }
 
     public Token(TokenTypes type) {
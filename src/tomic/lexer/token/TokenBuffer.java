@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.lexer.token;
+
+import java.util.Arrays;
+
+/**
+ * Compact storage of a token stream, kept as parallel arrays instead of
+ * one {@link Token} per entry. Only the text of numbers, format strings
+ * and unknown tokens is stored, in a shared char array. Keywords, operators
+ * and delimiters share one lexeme per type, and identifiers one per id.
+ * <p>
+ * Lexeme Strings and {@link Token} objects are only created on demand.
+ */
+public class TokenBuffer {
+    private static final TokenTypes[] TYPES = TokenTypes.values();
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    // Line number in the high half, char number in the low half.
+    private long[] positions = new long[INITIAL_CAPACITY];
+    // Range in text, or the interned id for identifiers.
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private char[] text = new char[INITIAL_CAPACITY * 4];
+    private int textLength = 0;
+
+    private final String[] fixedLexemes = new String[TYPES.length];
+    private String[] names = new String[64];
+
+    // The last token created, as it is usually requested again right away.
+    private Token cached = null;
+    private int cachedIndex = -1;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Append a token with the given text.
+     * @return index of the token
+     */
+    public int add(TokenTypes type, char[] buffer, int offset, int length, int lineNo, int charNo) {
+        int index = reserve(type, lineNo, charNo);
+        if (isFixed(type)) {
+            if (fixedLexemes[type.ordinal()] == null) {
+                fixedLexemes[type.ordinal()] = new String(buffer, offset, length);
+            }
+            starts[index] = 0;
+            lengths[index] = 0;
+        } else {
+            ensureText(length);
+            System.arraycopy(buffer, offset, text, textLength, length);
+            starts[index] = textLength;
+            lengths[index] = length;
+            textLength += length;
+        }
+        return index;
+    }
+
+    /**
+     * Append an identifier.
+     * @param name the canonical name of the identifier id
+     * @return index of the token
+     */
+    public int addIdentifier(int id, String name, int lineNo, int charNo) {
+        int index = reserve(TokenTypes.IDENTIFIER, lineNo, charNo);
+        if (id >= names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, id + 1));
+        }
+        names[id] = name;
+        starts[index] = id;
+        lengths[index] = 0;
+        return index;
+    }
+
+    /**
+     * Append an existing token.
+     * @return index of the token
+     */
+    public int add(Token token) {
+        if (token.type == TokenTypes.IDENTIFIER && token.id >= 0) {
+            return addIdentifier(token.id, token.lexeme, token.lineNo, token.charNo);
+        }
+
+        int length = token.lexeme.length();
+        int index = reserve(token.type, token.lineNo, token.charNo);
+        if (isFixed(token.type)) {
+            fixedLexemes[token.type.ordinal()] = token.lexeme;
+            starts[index] = 0;
+            lengths[index] = 0;
+        } else {
+            ensureText(length);
+            token.lexeme.getChars(0, length, text, textLength);
+            starts[index] = textLength;
+            lengths[index] = length;
+            textLength += length;
+        }
+        return index;
+    }
+
+    /**
+     * Drop the last token, along with its text.
+     */
+    public void removeLast() {
+        if (size == 0) {
+            return;
+        }
+        size--;
+        if (!isFixed(type(size)) && type(size) != TokenTypes.IDENTIFIER) {
+            textLength = starts[size];
+        }
+        if (cachedIndex == size) {
+            cached = null;
+            cachedIndex = -1;
+        }
+    }
+
+    public TokenTypes type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int lineNo(int index) {
+        return (int) (positions[index] >>> 32);
+    }
+
+    public int charNo(int index) {
+        return (int) positions[index];
+    }
+
+    /**
+     * Get the interned id of an identifier, -1 for other tokens.
+     */
+    public int id(int index) {
+        return (type(index) == TokenTypes.IDENTIFIER) ? starts[index] : -1;
+    }
+
+    public String lexeme(int index) {
+        TokenTypes type = type(index);
+        if (type == TokenTypes.IDENTIFIER) {
+            return names[starts[index]];
+        }
+        if (isFixed(type)) {
+            return fixedLexemes[type.ordinal()];
+        }
+        return new String(text, starts[index], lengths[index]);
+    }
+
+    /**
+     * Get the token at the given index. The same object is returned for
+     * consecutive requests of the same index.
+     */
+    public Token get(int index) {
+        if (index != cachedIndex) {
+            cached = new Token(type(index), lexeme(index), lineNo(index), charNo(index), id(index));
+            cachedIndex = index;
+        }
+        return cached;
+    }
+
+    private int reserve(TokenTypes type, int lineNo, int charNo) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        positions[size] = ((long) lineNo << 32) | (charNo & 0xFFFFFFFFL);
+        return size++;
+    }
+
+    private void ensureText(int length) {
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+        }
+    }
+
+    /**
+     * Keywords, operators and delimiters always have the same lexeme.
+     */
+    private static boolean isFixed(TokenTypes type) {
+        return switch (type) {
+            case UNKNOWN, TERMINATOR, IDENTIFIER, INTEGER, FORMAT -> false;
+            default -> true;
+        };
+    }
+}
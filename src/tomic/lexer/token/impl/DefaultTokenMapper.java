@@ -17,6 +17,7 @@ public class DefaultTokenMapper implements ITokenMapper {
     private Map<TokenTypes, String> typeToLexeme;
     private Map<TokenTypes, String> typeToDescription;
     private Map<String, Boolean> lexemeToIsKeyword;
+    private final IdentifierInterner interner = new IdentifierInterner();
 
     public DefaultTokenMapper() {
         init();
@@ -42,6 +43,67 @@ public class DefaultTokenMapper implements ITokenMapper {
         return lexemeToIsKeyword.getOrDefault(lexeme, false);
     }
 
+    /**
+     * Keywords are told apart by length and first character,
+     * then confirmed by comparing the rest.
+     */
+    @Override
+    public TokenTypes keyword(char[] buffer, int offset, int length) {
+        TokenTypes type = switch (length) {
+            case 2 -> (buffer[offset] == 'i') ? TokenTypes.IF : null;
+            case 3 -> switch (buffer[offset]) {
+                case 'f' -> TokenTypes.FOR;
+                case 'i' -> TokenTypes.INT;
+                default -> null;
+            };
+            case 4 -> switch (buffer[offset]) {
+                case 'm' -> TokenTypes.MAIN;
+                case 'e' -> TokenTypes.ELSE;
+                case 'v' -> TokenTypes.VOID;
+                default -> null;
+            };
+            case 5 -> switch (buffer[offset]) {
+                case 'b' -> TokenTypes.BREAK;
+                case 'c' -> TokenTypes.CONST;
+                default -> null;
+            };
+            case 6 -> switch (buffer[offset]) {
+                case 'r' -> TokenTypes.RETURN;
+                case 'g' -> TokenTypes.GETINT;
+                case 'p' -> TokenTypes.PRINTF;
+                default -> null;
+            };
+            case 8 -> (buffer[offset] == 'c') ? TokenTypes.CONTINUE : null;
+            default -> null;
+        };
+
+        if (type == null || !matches(typeToLexeme.get(type), buffer, offset, length)) {
+            return TokenTypes.UNKNOWN;
+        }
+
+        return type;
+    }
+
+    @Override
+    public int intern(char[] buffer, int offset, int length) {
+        return interner.intern(buffer, offset, length);
+    }
+
+    @Override
+    public String identifier(int id) {
+        return interner.name(id);
+    }
+
+    private static boolean matches(String lexeme, char[] buffer, int offset, int length) {
+        // Length and first character are already checked.
+        for (int i = 1; i < length; i++) {
+            if (lexeme.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void init() {
         initLexemeToType();
         initTypeToLexeme();
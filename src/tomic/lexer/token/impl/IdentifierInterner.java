@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.lexer.token.impl;
+
+import java.util.Arrays;
+
+/**
+ * Hands out one canonical String and a dense id for each distinct
+ * identifier. Lookups work on a char range directly, so no String is
+ * allocated for identifiers seen before.
+ */
+public class IdentifierInterner {
+    private static final int EMPTY = -1;
+
+    // Open addressing table of ids, always a power of 2 in size.
+    private int[] table = new int[256];
+    private String[] names = new String[128];
+    private int[] hashes = new int[128];
+    private int size = 0;
+
+    public IdentifierInterner() {
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Intern the identifier in the given range.
+     * @return the dense id of the identifier, starting from 0
+     */
+    public int intern(char[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (hashes[id] == hash && matches(names[id], buffer, offset, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = add(new String(buffer, offset, length), hash);
+        table[slot] = id;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+
+        return id;
+    }
+
+    public int intern(String name) {
+        int id = find(name);
+        return (id != EMPTY) ? id : intern(name.toCharArray(), 0, name.length());
+    }
+
+    /**
+     * Get the id of an identifier without interning it.
+     * @return -1 if it is not interned
+     */
+    public int find(String name) {
+        int hash = hash(name);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int id = table[slot];
+            if (id == EMPTY || (hashes[id] == hash && names[id].equals(name))) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Get the canonical instance of an interned identifier.
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        names[size] = name;
+        hashes[size] = hash;
+        return size++;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, EMPTY);
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+
+    private static int hash(char[] buffer, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        return spread(hash);
+    }
+
+    private static int hash(String name) {
+        return spread(name.hashCode());
+    }
+
+    // Spread higher bits, as the table is indexed by the lower ones.
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, char[] buffer, int offset, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
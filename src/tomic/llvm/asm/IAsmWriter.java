@@ -53,4 +53,11 @@ public interface IAsmWriter {
     IAsmWriter commentEnd();
 
     IAsmWriter pushIndent();
+
+    default IAsmWriter pushIndents(int count) {
+        for (int i = 0; i < count; i++) {
+            pushIndent();
+        }
+        return this;
+    }
 }
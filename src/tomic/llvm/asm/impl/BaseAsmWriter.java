@@ -10,6 +10,8 @@ import lib.twio.ITwioWriter;
 import tomic.llvm.asm.IAsmWriter;
 
 public class BaseAsmWriter implements IAsmWriter {
+    private static final char[] SPACES = " ".repeat(64).toCharArray();
+
     protected final ITwioWriter impl;
     private final char commentCharacter;
     private final int indentSize;
@@ -32,6 +34,19 @@ public class BaseAsmWriter implements IAsmWriter {
         return this;
     }
 
+    /**
+     * Spaces are written in chunks rather than one by one.
+     */
+    @Override
+    public IAsmWriter pushSpaces(int count) {
+        while (count > 0) {
+            int n = Math.min(count, SPACES.length);
+            impl.write(SPACES, 0, n);
+            count -= n;
+        }
+        return this;
+    }
+
     @Override
     public IAsmWriter commentBegin() {
         return push(commentCharacter).pushSpace();
@@ -46,4 +61,9 @@ public class BaseAsmWriter implements IAsmWriter {
     public IAsmWriter pushIndent() {
         return pushSpaces(indentSize);
     }
+
+    @Override
+    public IAsmWriter pushIndents(int count) {
+        return pushSpaces(count * indentSize);
+    }
 }
@@ -20,11 +20,15 @@ import tomic.parser.ast.*;
 import tomic.parser.table.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     private SyntaxTree syntaxTree;
     private SymbolTable symbolTable;
     private Module module;
+    // Builds functions concurrently, or in turn if null.
+    private final ForkJoinPool pool;
 
     private Function currentFunction;
     private BasicBlock currentBlock;
@@ -32,6 +36,27 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     private final Stack<ForContext> forCtxStack = new Stack<>();
 
     private final Map<SymbolTableEntry, Value> valueMap = new HashMap<>();
+    // Values of globals and functions, shared by function builders.
+    private Map<SymbolTableEntry, Value> globalValueMap;
+
+    public OptimizedAsmGenerator() {
+        this((ForkJoinPool) null);
+    }
+
+    public OptimizedAsmGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Builder of a single function, with its own state.
+     */
+    private OptimizedAsmGenerator(OptimizedAsmGenerator parent) {
+        syntaxTree = parent.syntaxTree;
+        symbolTable = parent.symbolTable;
+        module = parent.module;
+        pool = null;
+        globalValueMap = parent.valueMap;
+    }
 
     @Override
     public Module generate(SyntaxTree syntaxTree, SymbolTable symbolTable, String name) {
@@ -80,37 +105,80 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
      */
     private boolean parseCompilationUnit() {
         var root = syntaxTree.getRoot();
+        var bodies = new ArrayList<FunctionBody>();
 
+        // Module level first, so that function builders only read it.
         for (var it = root.getFirstChild(); it != null; it = it.getNextSibling()) {
             if (it.is(SyntaxTypes.DECL)) {
                 parseGlobalDecl(it);
             } else if (it.is(SyntaxTypes.FUNC_DEF)) {
-                parseFunction(it);
+                bodies.add(new FunctionBody(it, declareFunction(it)));
             } else if (it.is(SyntaxTypes.MAIN_FUNC_DEF)) {
-                parseMainFunction(it);
+                bodies.add(new FunctionBody(it, declareMainFunction(it)));
             } else {
                 throw new IllegalStateException("Unexpected node type: " + it.getType());
             }
         }
+        for (var body : bodies) {
+            declareGlobalStrings(body.node());
+        }
+
+        buildFunctions(bodies);
 
         return true;
     }
 
-    private Function parseMainFunction(SyntaxNode node) {
-        var context = module.getContext();
+    /**
+     * Build function bodies, each with its own builder. Users of global
+     * values are deferred when built concurrently, so that the result is
+     * the same as built in turn.
+     */
+    private void buildFunctions(List<FunctionBody> bodies) {
+        if (pool == null) {
+            for (var body : bodies) {
+                new OptimizedAsmGenerator(this).buildFunction(body);
+            }
+            return;
+        }
 
-        Function function = Function.newInstance(IntegerType.get(context, 32), "main");
+        var deferred = new DeferredUsers[bodies.size()];
+        pool.submit(() -> IntStream.range(0, bodies.size()).parallel().forEach(i -> {
+            deferred[i] = new DeferredUsers();
+            deferred[i].begin();
+            try {
+                new OptimizedAsmGenerator(this).buildFunction(bodies.get(i));
+            } finally {
+                deferred[i].end();
+            }
+        })).join();
+        for (var users : deferred) {
+            users.commit();
+        }
+    }
+
+    private void buildFunction(FunctionBody body) {
+        var function = body.function();
         setCurrentFunction(function);
-        setCurrentBasicBlock(function.newBasicBlock());
+        if (body.node().is(SyntaxTypes.MAIN_FUNC_DEF)) {
+            setCurrentBasicBlock(function.newBasicBlock());
+        } else {
+            var block = getSymbolTableBlock(body.node().getLastChild());
+            setCurrentBasicBlock(initFunctionParams(function, block));
+        }
 
-        node.accept(this);
+        body.node().accept(this);
+    }
+
+    private Function declareMainFunction(SyntaxNode node) {
+        var context = module.getContext();
 
+        Function function = Function.newInstance(IntegerType.get(context, 32), "main");
         module.addFunction(function);
 
         return function;
     }
 
-    private Function parseFunction(SyntaxNode node) {
+    private Function declareFunction(SyntaxNode node) {
         var decl = node.getFirstChild();
         Type returnType = getNodeType(decl);
 
@@ -129,20 +197,32 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
         String name = decl.childAt(1).getToken().lexeme;
         var entry = getSymbolTableBlock(node).findEntry(name);
         Function function = Function.newInstance(returnType, name, args);
-        var body = initFunctionParams(function, block);
-
-        setCurrentFunction(function);
-        setCurrentBasicBlock(body);
 
         addValue(entry, function);
-        node.accept(this);
-
         module.addFunction(function);
+
         return function;
     }
 
+    /**
+     * Strings are named in the order they are first used, so they are
+     * declared before functions are built.
+     */
+    private void declareGlobalStrings(SyntaxNode node) {
+        var context = module.getContext();
+        for (var stmt : AstExt.getChildNodes(node, SyntaxTypes.OUT_STMT)) {
+            var format = stmt.childAt(2).getToken().lexeme;
+            format = format.substring(1, format.length() - 1);
+            for (var str : format.split("(?<=%d)|(?=%d)")) {
+                if (!str.equals("%d")) {
+                    module.addGlobalString(GlobalString.getInstance(context, str));
+                }
+            }
+        }
+    }
+
     private Argument parseArgument(SyntaxNode node, int argNo, SymbolTableBlock block) {
-        String name = node.getAttribute("name");
+        String name = node.getAttribute(SyntaxAttributes.NAME);
         var entry = block.findEntry(name);
         Type type = getEntryType(entry);
 
@@ -211,7 +291,7 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
      * ==================== Utility functions ====================
      */
     private SymbolTableBlock getSymbolTableBlock(SyntaxNode node) {
-        int tbl = AstExt.getInheritedIntAttribute(node, "tbl", -1);
+        int tbl = AstExt.getInheritedIntAttribute(node, SyntaxAttributes.TBL, -1);
         var block = symbolTable.getBlock(tbl);
         if (block == null) {
             throw new IllegalStateException("Symbol table block not found: " + tbl);
@@ -225,6 +305,9 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
 
     private Value getValue(SymbolTableEntry entry) {
         var value = valueMap.getOrDefault(entry, null);
+        if (value == null && globalValueMap != null) {
+            value = globalValueMap.getOrDefault(entry, null);
+        }
         if (value == null) {
             throw new IllegalStateException("Value not found for entry: " + entry);
         }
@@ -263,7 +346,7 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     }
 
     private Type getNodeType(SyntaxNode node) {
-        var type = SymbolValueTypes.values()[node.getIntAttribute("type")];
+        var type = SymbolValueTypes.values()[node.getIntAttribute(SyntaxAttributes.TYPE)];
         return switch (type) {
             case INT -> IntegerType.get(module.getContext(), 32);
             case VOID -> Type.getVoidTy(module.getContext());
@@ -363,13 +446,13 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     }
 
     private ConstantData parseGlobalInitValue(SyntaxNode node) {
-        if (!node.getBoolAttribute("det")) {
+        if (!node.getBoolAttribute(SyntaxAttributes.DET)) {
             throw new IllegalStateException("Global init value must be deterministic");
         }
 
-        int dim = node.getIntAttribute("dim");
+        int dim = node.getIntAttribute(SyntaxAttributes.DIM);
         if (dim == 0) {
-            return new ConstantData(IntegerType.get(module.getContext(), 32), node.getIntAttribute("value"));
+            return ConstantData.get(IntegerType.get(module.getContext(), 32), node.getIntAttribute(SyntaxAttributes.VALUE));
         }
 
         ArrayList<ConstantData> values = new ArrayList<>();
@@ -388,7 +471,7 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
 
         for (var it = node.getFirstChild(); it != null; it = it.getNextSibling()) {
             if (it.is(SyntaxTypes.VAR_DEF, SyntaxTypes.CONST_DEF)) {
-                if (it.getIntAttribute("dim") == 0) {
+                if (it.getIntAttribute(SyntaxAttributes.DIM) == 0) {
                     parseVariableDef(it);
                 } else {
                     parseArrayDef(it);
@@ -472,11 +555,11 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     private List<Value> buildSubscript(List<Integer> prefix, int index) {
         var context = module.getContext();
         ArrayList<Value> subscripts = new ArrayList<>();
-        subscripts.add(new ConstantData(IntegerType.get(context, 32), 0));
+        subscripts.add(ConstantData.get(IntegerType.get(context, 32), 0));
         for (var i : prefix) {
-            subscripts.add(new ConstantData(IntegerType.get(context, 32), i));
+            subscripts.add(ConstantData.get(IntegerType.get(context, 32), i));
         }
-        subscripts.add(new ConstantData(IntegerType.get(context, 32), index));
+        subscripts.add(ConstantData.get(IntegerType.get(context, 32), index));
         return subscripts;
     }
 
@@ -487,19 +570,19 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
         if (type.getElementType().isIntegerTy()) {
             int size = type.getElementCount();
             var inst = GetElementPtrInst.create(base, List.of(
-                    new ConstantData(IntegerType.get(module.getContext(), 32), 0),
-                    new ConstantData(IntegerType.get(module.getContext(), 32), 0)));
+                    ConstantData.get(IntegerType.get(module.getContext(), 32), 0),
+                    ConstantData.get(IntegerType.get(module.getContext(), 32), 0)));
             insertInstruction(inst);
             storeArrayInit(inst, size, initValues, offset);
         } else {
             var inst = GetElementPtrInst.create(base, List.of(
-                    new ConstantData(IntegerType.get(module.getContext(), 32), 0),
-                    new ConstantData(IntegerType.get(module.getContext(), 32), 0)));
+                    ConstantData.get(IntegerType.get(module.getContext(), 32), 0),
+                    ConstantData.get(IntegerType.get(module.getContext(), 32), 0)));
             insertInstruction(inst);
             _initArray(inst, initValues, offset);
             int size = ((ArrayType) type.getElementType()).getSize();
             for (int i = 1; i < type.getElementCount(); i++) {
-                inst = GetElementPtrInst.create(inst, List.of(new ConstantData(IntegerType.get(module.getContext(), 32), 1)));
+                inst = GetElementPtrInst.create(inst, List.of(ConstantData.get(IntegerType.get(module.getContext(), 32), 1)));
                 insertInstruction(inst);
                 _initArray(inst, initValues, offset + i * size);
             }
@@ -511,7 +594,7 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
         insertInstruction(new StoreInst(value, base));
         Instruction inst = (Instruction) base;
         for (int i = 1; i < size; i++) {
-            inst = GetElementPtrInst.create(inst, List.of(new ConstantData(IntegerType.get(module.getContext(), 32), 1)));
+            inst = GetElementPtrInst.create(inst, List.of(ConstantData.get(IntegerType.get(module.getContext(), 32), 1)));
             insertInstruction(inst);
             value = ensureInt32(parseExpression(initValues.get(offset + i)));
             insertInstruction(new StoreInst(value, inst));
@@ -554,10 +637,10 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
 
         var context = module.getContext();
 
-        if (node.getBoolAttribute("det")) {
-            int value = node.getIntAttribute("value");
+        if (node.getBoolAttribute(SyntaxAttributes.DET)) {
+            int value = node.getIntAttribute(SyntaxAttributes.VALUE);
             var type = IntegerType.get(context, 32);
-            return new ConstantData(type, value);
+            return ConstantData.get(type, value);
         }
 
         return parseAddExp(node.getFirstChild());
@@ -566,10 +649,15 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     private Value parseAddExp(SyntaxNode node) {
         var context = module.getContext();
 
-        if (node.getBoolAttribute("det")) {
-            int value = node.getIntAttribute("value");
+        if (node.getBoolAttribute(SyntaxAttributes.DET)) {
+            int value = node.getIntAttribute(SyntaxAttributes.VALUE);
             var type = IntegerType.get(context, 32);
-            return new ConstantData(type, value);
+            return ConstantData.get(type, value);
+        }
+
+        // Pass-through levels may be removed by ExpressionChainTransformer.
+        if (!node.is(SyntaxTypes.ADD_EXP)) {
+            return parseMulExp(node);
         }
 
         if (node.hasManyChildren()) {
@@ -589,10 +677,14 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     private Value parseMulExp(SyntaxNode node) {
         var context = module.getContext();
 
-        if (node.getBoolAttribute("det")) {
-            int value = node.getIntAttribute("value");
+        if (node.getBoolAttribute(SyntaxAttributes.DET)) {
+            int value = node.getIntAttribute(SyntaxAttributes.VALUE);
             var type = IntegerType.get(context, 32);
-            return new ConstantData(type, value);
+            return ConstantData.get(type, value);
+        }
+
+        if (!node.is(SyntaxTypes.MUL_EXP)) {
+            return parseUnaryExp(node);
         }
 
         if (node.hasManyChildren()) {
@@ -611,13 +703,19 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     }
 
     private Value parseUnaryExp(SyntaxNode node) {
+        if (node.is(SyntaxTypes.PRIMARY_EXP)) {
+            return parsePrimaryExp(node);
+        } else if (node.is(SyntaxTypes.FUNC_CALL)) {
+            return parseFunctionCall(node);
+        }
+
         if (node.getFirstChild().is(SyntaxTypes.PRIMARY_EXP)) {
             return parsePrimaryExp(node.getFirstChild());
         } else if (node.getFirstChild().is(SyntaxTypes.FUNC_CALL)) {
             return parseFunctionCall(node.getFirstChild());
         }
 
-        String op = node.getFirstChild().getAttribute("op");
+        String op = node.getFirstChild().getAttribute(SyntaxAttributes.OP);
         switch (op) {
             case "+" -> {
                 return parseUnaryExp(node.getLastChild());
@@ -699,8 +797,8 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
             } else {
                 return insertInstruction(GetElementPtrInst.create(lVal,
                         List.of(
-                                new ConstantData(IntegerType.get(module.getContext(), 32), 0),
-                                new ConstantData(IntegerType.get(module.getContext(), 32), 0)
+                                ConstantData.get(IntegerType.get(module.getContext(), 32), 0),
+                                ConstantData.get(IntegerType.get(module.getContext(), 32), 0)
                         )));
             }
         }
@@ -717,7 +815,7 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
 
         for (int i = doublePointer ? 1 : 0; i < indexNodes.size(); i++) {
             indices.clear();
-            indices.add(new ConstantData(IntegerType.get(module.getContext(), 32), 0));
+            indices.add(ConstantData.get(IntegerType.get(module.getContext(), 32), 0));
             indices.add(ensureInt32(parseExpression(indexNodes.get(i))));
             inst = insertInstruction(GetElementPtrInst.create(inst, indices));
         }
@@ -725,8 +823,8 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
         int i = indexNodes.size();
         if (i < dim) {
             indices.clear();
-            indices.add(new ConstantData(IntegerType.get(module.getContext(), 32), 0));
-            indices.add(new ConstantData(IntegerType.get(module.getContext(), 32), 0));
+            indices.add(ConstantData.get(IntegerType.get(module.getContext(), 32), 0));
+            indices.add(ConstantData.get(IntegerType.get(module.getContext(), 32), 0));
             inst = insertInstruction(GetElementPtrInst.create(inst, indices));
             i++;
         }
@@ -734,7 +832,7 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
         /*
          * It is not wise to rely on AST attribute... but leave it here.
          */
-        if (node.getIntAttribute("dim") == 0) {
+        if (node.getIntAttribute(SyntaxAttributes.DIM) == 0) {
             return insertInstruction(new LoadInst(inst));
         } else {
             return inst;
@@ -761,8 +859,8 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
         if (indexNodes.isEmpty()) {
             return insertInstruction(GetElementPtrInst.create(lVal,
                     List.of(
-                            new ConstantData(IntegerType.get(module.getContext(), 32), 0),
-                            new ConstantData(IntegerType.get(module.getContext(), 32), 0)
+                            ConstantData.get(IntegerType.get(module.getContext(), 32), 0),
+                            ConstantData.get(IntegerType.get(module.getContext(), 32), 0)
                     )));
         }
 
@@ -778,7 +876,7 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
 
         for (int i = doublePointer ? 1 : 0; i < indexNodes.size(); i++) {
             indices.clear();
-            indices.add(new ConstantData(IntegerType.get(module.getContext(), 32), 0));
+            indices.add(ConstantData.get(IntegerType.get(module.getContext(), 32), 0));
             indices.add(ensureInt32(parseExpression(indexNodes.get(i))));
             inst = insertInstruction(GetElementPtrInst.create(inst, indices));
         }
@@ -786,8 +884,8 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
         int i = indexNodes.size();
         if (i < dim) {
             indices.clear();
-            indices.add(new ConstantData(IntegerType.get(module.getContext(), 32), 0));
-            indices.add(new ConstantData(IntegerType.get(module.getContext(), 32), 0));
+            indices.add(ConstantData.get(IntegerType.get(module.getContext(), 32), 0));
+            indices.add(ConstantData.get(IntegerType.get(module.getContext(), 32), 0));
             inst = insertInstruction(GetElementPtrInst.create(inst, indices));
             i++;
         }
@@ -800,11 +898,11 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     }
 
     private Value parseNumber(SyntaxNode node) {
-        if (!node.getBoolAttribute("det")) {
+        if (!node.getBoolAttribute(SyntaxAttributes.DET)) {
             throw new IllegalStateException("Number must be deterministic");
         }
 
-        return new ConstantData(IntegerType.get(module.getContext(), 32), node.getIntAttribute("value"));
+        return ConstantData.get(IntegerType.get(module.getContext(), 32), node.getIntAttribute(SyntaxAttributes.VALUE));
     }
 
     private void parseInputStmt(SyntaxNode node) {
@@ -834,19 +932,21 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
                 insertInstruction(new OutputInst(expValues.get(paramNo++)));
             } else {
                 var value = GlobalString.getInstance(context, str);
-                module.addGlobalString(value);
                 insertInstruction(new OutputInst(value));
             }
         }
     }
 
     private Value parseEqExp(SyntaxNode node) {
-        if (node.getBoolAttribute("det")) {
-            int value = node.getIntAttribute("value");
+        if (node.getBoolAttribute(SyntaxAttributes.DET)) {
+            int value = node.getIntAttribute(SyntaxAttributes.VALUE);
             var type = IntegerType.get(module.getContext(), 32);
-            return new ConstantData(type, value);
+            return ConstantData.get(type, value);
         }
 
+        if (!node.is(SyntaxTypes.EQ_EXP)) {
+            return parseRelExp(node);
+        }
         if (node.hasOnlyOneChild()) {
             return parseRelExp(node.getFirstChild());
         }
@@ -864,12 +964,15 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     }
 
     private Value parseRelExp(SyntaxNode node) {
-        if (node.getBoolAttribute("det")) {
-            int value = node.getIntAttribute("value");
+        if (node.getBoolAttribute(SyntaxAttributes.DET)) {
+            int value = node.getIntAttribute(SyntaxAttributes.VALUE);
             var type = IntegerType.get(module.getContext(), 32);
-            return new ConstantData(type, value);
+            return ConstantData.get(type, value);
         }
 
+        if (!node.is(SyntaxTypes.REL_EXP)) {
+            return parseAddExp(node);
+        }
         if (node.hasOnlyOneChild()) {
             return parseAddExp(node.getFirstChild());
         }
@@ -927,12 +1030,12 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     }
 
     private void parseOrExp(SyntaxNode node, BasicBlock trueBlock, BasicBlock falseBlock, BasicBlock nextBlock) {
-        if (node.getBoolAttribute("det")) {
+        if (node.getBoolAttribute(SyntaxAttributes.DET)) {
             if (nextBlock == null) {
                 nextBlock = newBasicBlock();
             }
             setCurrentBasicBlock(nextBlock);
-            int value = node.getIntAttribute("value");
+            int value = node.getIntAttribute(SyntaxAttributes.VALUE);
             if (value != 0) {
                 insertInstruction(new JumpInst(trueBlock));
             } else {
@@ -941,6 +1044,10 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
             return;
         }
 
+        if (!node.is(SyntaxTypes.OR_EXP)) {
+            parseAndExp(node, trueBlock, falseBlock, nextBlock);
+            return;
+        }
         if (node.hasOnlyOneChild()) {
             parseAndExp(node.getFirstChild(), trueBlock, falseBlock, nextBlock);
             return;
@@ -952,12 +1059,12 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
     }
 
     private void parseAndExp(SyntaxNode node, BasicBlock trueBlock, BasicBlock falseBlock, BasicBlock nextBlock) {
-        if (node.getBoolAttribute("det")) {
+        if (node.getBoolAttribute(SyntaxAttributes.DET)) {
             if (nextBlock == null) {
                 nextBlock = currentFunction.newBasicBlock();
             }
             setCurrentBasicBlock(nextBlock);
-            int value = node.getIntAttribute("value");
+            int value = node.getIntAttribute(SyntaxAttributes.VALUE);
             if (value != 0) {
                 insertInstruction(new JumpInst(trueBlock));
             } else {
@@ -966,13 +1073,13 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
             return;
         }
 
-        if (node.hasOnlyOneChild()) {
+        if (!node.is(SyntaxTypes.AND_EXP) || node.hasOnlyOneChild()) {
             if (nextBlock == null) {
                 nextBlock = newBasicBlock();
             }
 
             setCurrentBasicBlock(nextBlock);
-            var value = parseEqExp(node.getFirstChild());
+            var value = parseEqExp(node.is(SyntaxTypes.AND_EXP) ? node.getFirstChild() : node);
             if (!value.getIntegerType().isBoolean()) {
                 value = insertInstruction(new CompInst(value, CompInst.CompOpTypes.Ne));
             }
@@ -1084,4 +1191,6 @@ public class OptimizedAsmGenerator implements IAsmGenerator, IAstVisitor {
      * @param elseBlock  The else block of the loop.
      */
     private record ForContext(BasicBlock entryBlock, BasicBlock stepBlock, BasicBlock elseBlock) {}
+
+    private record FunctionBody(SyntaxNode node, Function function) {}
 }
@@ -7,13 +7,21 @@
 package tomic.llvm.ir;
 
 import tomic.llvm.ir.type.*;
+import tomic.llvm.ir.value.ConstantData;
 import tomic.llvm.ir.value.GlobalString;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Owns the types, integer constants and strings of a module. Each type
+ * and constant has one instance, so they can be compared by identity.
+ * Functions may be built concurrently, so getters that create new ones
+ * are thread-safe.
+ */
 public class LlvmContext {
     private final Type voidTy = new Type(this, Type.TypeID.VoidTyID);
     private final Type labelTy = new Type(this, Type.TypeID.LabelTyID);
@@ -23,9 +31,11 @@ public class LlvmContext {
     private final IntegerType int32Ty = new IntegerType(this, 32);
     private final IntegerType int64Ty = new IntegerType(this, 64);
 
-    private final ArrayList<ArrayType> arrayTypes = new ArrayList<>();
-    private final ArrayList<FunctionType> functionTypes = new ArrayList<>();
-    private final ArrayList<PointerType> pointerTypes = new ArrayList<>();
+    // Derived types, keyed by their parts.
+    private final Map<ArrayKey, ArrayType> arrayTypes = new ConcurrentHashMap<>();
+    private final Map<FunctionKey, FunctionType> functionTypes = new ConcurrentHashMap<>();
+    private final Map<Type, PointerType> pointerTypes = new ConcurrentHashMap<>();
+    private final ConstantData.Pool constants = new ConstantData.Pool();
     private final Map<String, GlobalString> globalStrings = new HashMap<>();
 
     public Type getVoidTy() {
@@ -57,45 +67,37 @@ public class LlvmContext {
     }
 
 
+    private record ArrayKey(Type elementType, int elementCount) {}
+
+    private record FunctionKey(Type returnType, List<Type> paramTypes) {}
+
     public ArrayType getArrayType(Type elementType, int elementCount) {
-        for (ArrayType type : arrayTypes) {
-            if (type.match(elementType, elementCount)) {
-                return type;
-            }
-        }
-        var type = new ArrayType(elementType, elementCount);
-        arrayTypes.add(type);
-        return type;
+        return arrayTypes.computeIfAbsent(new ArrayKey(elementType, elementCount),
+                key -> new ArrayType(key.elementType(), key.elementCount()));
     }
 
     public PointerType getPointerType(Type elementType) {
-        for (PointerType type : pointerTypes) {
-            if (type.match(elementType)) {
-                return type;
-            }
-        }
-        var type = new PointerType(elementType);
-        pointerTypes.add(type);
-        return type;
+        return pointerTypes.computeIfAbsent(elementType, PointerType::new);
     }
 
     public FunctionType getFunctionType(Type returnType, List<Type> paramTypes) {
-        for (FunctionType type : functionTypes) {
-            if (type.match(returnType, paramTypes)) {
-                return type;
-            }
-        }
-        var type = new FunctionType(returnType, paramTypes);
-        functionTypes.add(type);
-        return type;
+        return functionTypes.computeIfAbsent(new FunctionKey(returnType, List.copyOf(paramTypes)),
+                key -> new FunctionType(key.returnType(), new ArrayList<>(key.paramTypes())));
+    }
+
+    /**
+     * Shared integer constant of the given type and value.
+     */
+    public ConstantData getConstant(Type type, int value) {
+        return constants.get(type, value);
     }
 
     public FunctionType getFunctionType(Type returnType) {
         return getFunctionType(returnType, new ArrayList<>());
     }
 
-    private static int idx = -1;
-    public GlobalString getGlobalString(String value) {
+    private int idx = -1;
+    public synchronized GlobalString getGlobalString(String value) {
         if (globalStrings.containsKey(value)) {
             return globalStrings.get(value);
         }
@@ -54,8 +54,8 @@ public class LlvmExt {
 
         var sizes = entry.getSizes();
         Type type = IntegerType.get(context, 32);
-        for (int i = sizes.size() - 1; i >= 1; i--) {
-            type = ArrayType.get(type, sizes.get(i));
+        for (int i = sizes.length - 1; i >= 1; i--) {
+            type = ArrayType.get(type, sizes[i]);
         }
 
         return PointerType.get(type);
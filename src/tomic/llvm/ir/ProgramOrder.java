@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.llvm.ir;
+
+import tomic.llvm.ir.value.BasicBlock;
+import tomic.llvm.ir.value.Function;
+import tomic.llvm.ir.value.inst.Instruction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dense numbering of blocks and instructions of a function in program
+ * order. It is built on the first query after a change to the function.
+ * Numbers are kept in int fields of the blocks and instructions, with
+ * the stamp of the numbering that set them, so each query is a field
+ * read and nodes numbered by an earlier numbering, or another function,
+ * are told apart.
+ */
+public class ProgramOrder {
+    // Stamps are unique among all functions, as nodes may move between them.
+    private static final AtomicInteger nextStamp = new AtomicInteger(0);
+
+    private final Function function;
+    private int stamp = -1;
+    private boolean valid = false;
+
+    public ProgramOrder(Function function) {
+        this.function = function;
+    }
+
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * @return index of the block in the function, or -1 if not in it
+     */
+    public int ordinal(BasicBlock block) {
+        update();
+        return (block.getOrderStamp() == stamp) ? block.getOrderIndex() : -1;
+    }
+
+    /**
+     * @return ordinal of the instruction in the function, or -1 if not in it
+     */
+    public int ordinal(Instruction instruction) {
+        update();
+        return (instruction.getOrderStamp() == stamp) ? instruction.getOrderIndex() : -1;
+    }
+
+    /**
+     * @return index of the instruction in its block, or -1 if not in the function
+     */
+    public int indexInBlock(Instruction instruction) {
+        int ordinal = ordinal(instruction);
+        return (ordinal < 0) ? -1 : ordinal - instruction.getParent().getOrderStart();
+    }
+
+    private void update() {
+        if (valid) {
+            return;
+        }
+
+        stamp = nextStamp.incrementAndGet();
+        int blockIndex = 0;
+        int ordinal = 0;
+        for (var block : function.getBasicBlocks()) {
+            block.setOrder(stamp, blockIndex++, ordinal);
+            for (var inst : block.getInstructions()) {
+                inst.setOrder(stamp, ordinal++);
+            }
+        }
+        valid = true;
+    }
+}
@@ -46,6 +46,11 @@ public class ArrayType extends Type {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * elementType.hashCode() + elementCount;
+    }
+
     public boolean match(Type elementType, int elementCount) {
         return this.elementType.equals(elementType) && this.elementCount == elementCount;
     }
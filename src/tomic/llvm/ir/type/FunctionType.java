@@ -49,6 +49,11 @@ public class FunctionType extends Type {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * returnType.hashCode() + paramTypes.hashCode();
+    }
+
     public boolean match(Type returnType) {
         return this.returnType.equals(returnType) && paramTypes.isEmpty();
     }
@@ -48,6 +48,11 @@ public class IntegerType extends Type {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return bitWidth;
+    }
+
     @Override
     public IAsmWriter printAsm(IAsmWriter out) {
         return out.push('i').push(String.valueOf(bitWidth));
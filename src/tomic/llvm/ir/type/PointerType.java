@@ -32,6 +32,11 @@ public class PointerType extends Type {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * elementType.hashCode() + 1;
+    }
+
     public boolean match(Type elementType) {
         return this.elementType.equals(elementType);
     }
@@ -87,6 +87,11 @@ public class Type {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return typeId.ordinal();
+    }
+
     public IAsmWriter printAsm(IAsmWriter out) {
         switch (typeId) {
             case VoidTyID -> out.push("void");
@@ -15,23 +15,33 @@ import tomic.llvm.ir.value.inst.ReturnInst;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
-public class BasicBlock extends Value {
+public class BasicBlock extends Value implements IListNode<BasicBlock> {
     private Function parent;
-    private final LinkedList<Instruction> instructions;
+    private final IntrusiveList<Instruction> instructions;
+
+    // Links in the block list of the parent.
+    private BasicBlock prev;
+    private BasicBlock next;
+    private IntrusiveList<?> list;
+
+    // Set by ProgramOrder, valid only if the stamp is its current one.
+    private int orderStamp = -1;
+    private int orderIndex;
+    // Ordinal of the first instruction.
+    private int orderStart;
 
     public BasicBlock(LlvmContext context) {
         super(ValueTypes.BasicBlockTy, context.getLabelTy());
         this.parent = null;
-        instructions = new LinkedList<>();
+        instructions = new IntrusiveList<>(this::invalidateOrder);
     }
 
     public BasicBlock(Function parent) {
         super(ValueTypes.BasicBlockTy, parent.getContext().getLabelTy());
         this.parent = parent;
-        instructions = new LinkedList<>();
+        instructions = new IntrusiveList<>(this::invalidateOrder);
     }
 
     public void setParent(Function function) {
@@ -43,23 +53,31 @@ public class BasicBlock extends Value {
     }
 
     public void insertInstruction(Instruction instruction) {
-        instruction.setParent(this);
-        instructions.add(instruction);
+        adopt(instruction);
+        instructions.addLast(instruction);
     }
 
     public void insertInstructionFirst(Instruction instruction) {
-        instruction.setParent(this);
+        adopt(instruction);
         instructions.addFirst(instruction);
     }
 
     public void insertInstructionBefore(Instruction instruction, Instruction before) {
-        instruction.setParent(this);
-        instructions.add(instructions.indexOf(before), instruction);
+        adopt(instruction);
+        instructions.insertBefore(instruction, before);
     }
 
     public void insertInstructionAfter(Instruction instruction, Instruction after) {
+        adopt(instruction);
+        instructions.insertAfter(instruction, after);
+    }
+
+    // An instruction moved from another block leaves it first.
+    private void adopt(Instruction instruction) {
+        if (instruction.getList() != null) {
+            instruction.getList().remove(instruction);
+        }
         instruction.setParent(this);
-        instructions.add(instructions.indexOf(after) + 1, instruction);
     }
 
     public void removeInstruction(Instruction instruction) {
@@ -67,7 +85,7 @@ public class BasicBlock extends Value {
         instructions.remove(instruction);
     }
 
-    public LinkedList<Instruction> getInstructions() {
+    public IntrusiveList<Instruction> getInstructions() {
         return instructions;
     }
 
@@ -93,7 +111,7 @@ public class BasicBlock extends Value {
             String slot = String.valueOf(getParent().slot(this));
             out.pushNewLine().push(slot).push(':');
 
-            if (!getUsers().isEmpty()) {
+            if (hasUses()) {
                 out.pushSpaces(50 - slot.length() - 1);
                 out.commentBegin();
                 out.push("preds = ");
@@ -118,8 +136,68 @@ public class BasicBlock extends Value {
         return out;
     }
 
+    /**
+     * Index of this block in the function, or -1 if not in it.
+     */
     public int getIndex() {
-        return getParent().getBasicBlocks().indexOf(this);
+        return (parent == null) ? -1 : parent.getProgramOrder().ordinal(this);
+    }
+
+    private void invalidateOrder() {
+        if (parent != null) {
+            parent.getProgramOrder().invalidate();
+        }
+    }
+
+    public int getOrderStamp() {
+        return orderStamp;
+    }
+
+    public int getOrderIndex() {
+        return orderIndex;
+    }
+
+    public int getOrderStart() {
+        return orderStart;
+    }
+
+    /**
+     * Only for {@link tomic.llvm.ir.ProgramOrder}.
+     */
+    public void setOrder(int stamp, int index, int start) {
+        orderStamp = stamp;
+        orderIndex = index;
+        orderStart = start;
+    }
+
+    @Override
+    public BasicBlock getPrev() {
+        return prev;
+    }
+
+    @Override
+    public BasicBlock getNext() {
+        return next;
+    }
+
+    @Override
+    public void setPrev(BasicBlock prev) {
+        this.prev = prev;
+    }
+
+    @Override
+    public void setNext(BasicBlock next) {
+        this.next = next;
+    }
+
+    @Override
+    public IntrusiveList<?> getList() {
+        return list;
+    }
+
+    @Override
+    public void setList(IntrusiveList<?> list) {
+        this.list = list;
     }
 
     @Override
@@ -149,12 +227,10 @@ public class BasicBlock extends Value {
             }
         }
 
-        /*
-         * F**k you, IntelliJ IDEA.
-         */
         if (inst != null) {
-            var unreachable = new LinkedList<>(instructions.subList(instructions.indexOf(inst) + 1, instructions.size()));
-            unreachable.forEach(this::removeInstruction);
+            while (inst.getNext() != null) {
+                removeInstruction(inst.getNext());
+            }
         }
     }
 }
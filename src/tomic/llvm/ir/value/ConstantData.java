@@ -13,33 +13,60 @@ import tomic.llvm.ir.type.Type;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Integer constant, or array of them. Integer constants are shared, get
+ * them with {@link #get(Type, int)}. Nothing needs to know the users of
+ * a constant, so uses of them are not tracked.
+ */
 public class ConstantData extends Constant {
-    private boolean allZero;
-    private int value;
+    private final boolean allZero;
+    private final int value;
     private final ArrayList<ConstantData> values;
 
-    public ConstantData(Type type, int value) {
+    public static ConstantData get(Type type, int value) {
+        return type.getContext().getConstant(type, value);
+    }
+
+    public static ConstantData get(LlvmContext context, boolean value) {
+        return get(context.getInt1Ty(), value ? 1 : 0);
+    }
+
+    /**
+     * Integer constants of one context, each is created only here.
+     */
+    public static class Pool {
+        private record Key(Type type, int value) {}
+
+        private final Map<Key, ConstantData> constants = new ConcurrentHashMap<>();
+
+        public ConstantData get(Type type, int value) {
+            return constants.computeIfAbsent(new Key(type, value), key -> new ConstantData(key.type(), key.value()));
+        }
+    }
+
+    private ConstantData(Type type, int value) {
         super(ValueTypes.ConstantDataTy, type);
         this.value = value;
         this.allZero = value == 0;
         values = null;
     }
 
-    public ConstantData(LlvmContext context, boolean value) {
-        this(context.getInt1Ty(), value ? 1 : 0);
-    }
-
     public ConstantData(List<ConstantData> values) {
         super(ValueTypes.ConstantDataTy, ArrayType.get(values.get(0).getType(), values.size()));
         this.values = new ArrayList<>(values);
-        this.allZero = true;
-        for (var value : values) {
-            if (!value.allZero) {
-                allZero = false;
-                break;
-            }
-        }
+        this.value = 0;
+        this.allZero = values.stream().allMatch(ConstantData::isAllZero);
+    }
+
+    @Override
+    void addUse(Use use) {
+    }
+
+    @Override
+    void removeUse(Use use) {
     }
 
     public boolean isArray() {
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.llvm.ir.value;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Changes to users of global values made on one thread, to be applied
+ * later. Global values are shared by all functions, so functions built
+ * or optimized concurrently record their changes here, and the changes
+ * are applied in function order afterwards. The user lists are then the
+ * same as when functions are handled in turn.
+ */
+public class DeferredUsers {
+    private static final ThreadLocal<DeferredUsers> current = new ThreadLocal<>();
+
+    private final ArrayList<GlobalValue> values = new ArrayList<>();
+    private final ArrayList<Use> uses = new ArrayList<>();
+    // Which of the changes are removals.
+    private final BitSet removals = new BitSet();
+
+    static DeferredUsers getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Start recording changes to users of global values on this thread.
+     */
+    public void begin() {
+        current.set(this);
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    void add(GlobalValue value, Use use) {
+        values.add(value);
+        uses.add(use);
+    }
+
+    void remove(GlobalValue value, Use use) {
+        removals.set(values.size());
+        add(value, use);
+    }
+
+    /**
+     * Apply recorded changes in the order they were recorded.
+     */
+    public void commit() {
+        for (int i = 0; i < values.size(); i++) {
+            if (removals.get(i)) {
+                values.get(i).removeUse(uses.get(i));
+            } else {
+                values.get(i).addUse(uses.get(i));
+            }
+        }
+        values.clear();
+        uses.clear();
+        removals.clear();
+    }
+}
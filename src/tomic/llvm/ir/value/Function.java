@@ -7,6 +7,7 @@
 package tomic.llvm.ir.value;
 
 import tomic.llvm.asm.IAsmWriter;
+import tomic.llvm.ir.ProgramOrder;
 import tomic.llvm.ir.SlotTracker;
 import tomic.llvm.ir.type.FunctionType;
 import tomic.llvm.ir.type.Type;
@@ -15,14 +16,14 @@ import tomic.llvm.ir.value.inst.JumpInst;
 import tomic.llvm.ir.value.inst.ReturnInst;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 public class Function extends GlobalValue {
     private final ArrayList<Argument> arguments;
-    private final LinkedList<BasicBlock> basicBlocks;
+    private final IntrusiveList<BasicBlock> basicBlocks;
     private BasicBlock returnBlock;
     private final SlotTracker slotTracker = new SlotTracker();
+    private final ProgramOrder programOrder = new ProgramOrder(this);
 
     public static Function newInstance(Type returnType, String name, List<Argument> arguments) {
         ArrayList<Type> argTypes = new ArrayList<>();
@@ -40,7 +41,7 @@ public class Function extends GlobalValue {
     private Function(Type type, String name, List<Argument> arguments) {
         super(ValueTypes.FunctionTy, type, name);
         this.arguments = new ArrayList<>(arguments);
-        this.basicBlocks = new LinkedList<>();
+        this.basicBlocks = new IntrusiveList<>(programOrder::invalidate);
         this.arguments.forEach(arg -> arg.setParent(this));
         returnBlock = new BasicBlock(this);
 
@@ -68,14 +69,14 @@ public class Function extends GlobalValue {
             basicBlock.getParent().removeBasicBlock(basicBlock);
         }
         basicBlock.setParent(this);
-        basicBlocks.add(basicBlock);
+        basicBlocks.addLast(basicBlock);
     }
 
     public void removeBasicBlock(BasicBlock basicBlock) {
         basicBlocks.remove(basicBlock);
     }
 
-    public LinkedList<BasicBlock> getBasicBlocks() {
+    public IntrusiveList<BasicBlock> getBasicBlocks() {
         return basicBlocks;
     }
 
@@ -99,6 +100,13 @@ public class Function extends GlobalValue {
         return ((FunctionType) getType()).getReturnType();
     }
 
+    /**
+     * Numbering of blocks and instructions, kept up to date on changes.
+     */
+    public ProgramOrder getProgramOrder() {
+        return programOrder;
+    }
+
     // A utility method to get the slot of a value in this function.
     public int slot(Value value) {
         return slotTracker.slot(value);
@@ -159,9 +167,8 @@ public class Function extends GlobalValue {
         insertBasicBlock(returnBlock);
 
         // Connect neighboring basic blocks
-        for (int i = 0; i < basicBlocks.size() - 1; i++) {
-            var block = basicBlocks.get(i);
-            var next = basicBlocks.get(i + 1);
+        for (var block = basicBlocks.getFirst(); block.getNext() != null; block = block.getNext()) {
+            var next = block.getNext();
             if (needConnect(block)) {
                 block.insertInstruction(new JumpInst(next, next == returnBlock));
             }
@@ -171,8 +178,7 @@ public class Function extends GlobalValue {
         var preds = returnBlock.getPredecessors();
         if (preds.size() == 1) {
             var pred = preds.get(0);
-            var prevBlock = basicBlocks.get(basicBlocks.size() - 2);
-            if (pred == prevBlock) {
+            if (pred == returnBlock.getPrev()) {
                 if (pred.getInstructions().getLast() instanceof JumpInst jmp && jmp.isReturn()) {
                     pred.removeInstruction(jmp);
                     returnBlock.getInstructions().forEach(pred::insertInstruction);
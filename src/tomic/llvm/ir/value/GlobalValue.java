@@ -26,6 +26,26 @@ public class GlobalValue extends Constant {
         this.parent = parent;
     }
 
+    @Override
+    void addUse(Use use) {
+        var deferred = DeferredUsers.getCurrent();
+        if (deferred != null) {
+            deferred.add(this, use);
+        } else {
+            super.addUse(use);
+        }
+    }
+
+    @Override
+    void removeUse(Use use) {
+        var deferred = DeferredUsers.getCurrent();
+        if (deferred != null) {
+            deferred.remove(this, use);
+        } else {
+            super.removeUse(use);
+        }
+    }
+
     @Override
     public IAsmWriter printName(IAsmWriter out) {
         return out.push('@').push(getName());
@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.llvm.ir.value;
+
+/**
+ * Element of an {@link IntrusiveList}, which keeps the links in the
+ * element itself. The setters are for the list only.
+ *
+ * @param <T> the element type
+ */
+public interface IListNode<T> {
+    T getPrev();
+
+    T getNext();
+
+    void setPrev(T prev);
+
+    void setNext(T next);
+
+    IntrusiveList<?> getList();
+
+    void setList(IntrusiveList<?> list);
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.llvm.ir.value;
+
+import java.util.AbstractSequentialList;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Doubly linked list whose links live in the elements, so an element
+ * can be inserted or removed at its position in O(1). An element is in
+ * at most one list at a time.
+ * <p>
+ * Iterators step to the next element before returning the current one,
+ * so the current element can be removed, or moved to another list,
+ * during traversal.
+ *
+ * @param <T> the element type
+ */
+public class IntrusiveList<T extends IListNode<T>> extends AbstractSequentialList<T> {
+    private T first;
+    private T last;
+    private int size;
+    // Called after each insertion or removal.
+    private final Runnable onChange;
+
+    public IntrusiveList() {
+        this(null);
+    }
+
+    public IntrusiveList(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    public T getFirst() {
+        if (first == null) {
+            throw new NoSuchElementException();
+        }
+        return first;
+    }
+
+    public T getLast() {
+        if (last == null) {
+            throw new NoSuchElementException();
+        }
+        return last;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean add(T node) {
+        addLast(node);
+        return true;
+    }
+
+    public void addFirst(T node) {
+        link(node, null, first);
+    }
+
+    public void addLast(T node) {
+        link(node, last, null);
+    }
+
+    /**
+     * Insert a node right before an element of this list.
+     */
+    public void insertBefore(T node, T before) {
+        checkOwned(before);
+        link(node, before.getPrev(), before);
+    }
+
+    /**
+     * Insert a node right after an element of this list.
+     */
+    public void insertAfter(T node, T after) {
+        checkOwned(after);
+        link(node, after, after.getNext());
+    }
+
+    /**
+     * Remove an element in O(1). Nothing happens if it is not in this list.
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof IListNode<?> node) || node.getList() != this) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        T element = (T) node;
+        unlink(element);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return (o instanceof IListNode<?> node) && node.getList() == this;
+    }
+
+    @Override
+    public void clear() {
+        while (first != null) {
+            unlink(first);
+        }
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        return new Itr(index);
+    }
+
+    private void link(T node, T prev, T next) {
+        if (node.getList() != null) {
+            throw new IllegalStateException("Node is already in a list");
+        }
+        node.setList(this);
+        node.setPrev(prev);
+        node.setNext(next);
+        if (prev == null) {
+            first = node;
+        } else {
+            prev.setNext(node);
+        }
+        if (next == null) {
+            last = node;
+        } else {
+            next.setPrev(node);
+        }
+        size++;
+        changed();
+    }
+
+    private void unlink(T node) {
+        var prev = node.getPrev();
+        var next = node.getNext();
+        if (prev == null) {
+            first = next;
+        } else {
+            prev.setNext(next);
+        }
+        if (next == null) {
+            last = prev;
+        } else {
+            next.setPrev(prev);
+        }
+        node.setPrev(null);
+        node.setNext(null);
+        node.setList(null);
+        size--;
+        changed();
+    }
+
+    private void changed() {
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+
+    private void checkOwned(T node) {
+        if (node.getList() != this) {
+            throw new IllegalArgumentException("Node is not in this list");
+        }
+    }
+
+    private class Itr implements ListIterator<T> {
+        private T next;
+        private T lastReturned;
+        private int nextIndex;
+
+        Itr(int index) {
+            next = first;
+            for (int i = 0; i < index; i++) {
+                next = next.getNext();
+            }
+            nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.getNext();
+            nextIndex++;
+            return lastReturned;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return (next == null) ? last != null : next.getPrev() != null;
+        }
+
+        @Override
+        public T previous() {
+            var prev = (next == null) ? last : next.getPrev();
+            if (prev == null) {
+                throw new NoSuchElementException();
+            }
+            next = lastReturned = prev;
+            nextIndex--;
+            return prev;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (lastReturned == next) {
+                next = next.getNext();
+            } else {
+                nextIndex--;
+            }
+            IntrusiveList.this.remove(lastReturned);
+            lastReturned = null;
+        }
+
+        @Override
+        public void set(T node) {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            var prev = lastReturned.getPrev();
+            IntrusiveList.this.remove(lastReturned);
+            link(node, prev, (prev == null) ? first : prev.getNext());
+            if (next == lastReturned) {
+                next = node;
+            }
+            lastReturned = node;
+        }
+
+        @Override
+        public void add(T node) {
+            link(node, (next == null) ? last : next.getPrev(), next);
+            nextIndex++;
+            lastReturned = null;
+        }
+    }
+}
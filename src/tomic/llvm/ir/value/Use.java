@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.llvm.ir.value;
+
+/**
+ * An operand slot of a user. Each use is linked in the use list of its
+ * value, so it can be removed without a search. A use never changes, a
+ * new one takes its slot when the operand is set.
+ */
+public final class Use {
+    private final Value value;
+    private final User user;
+    private final int operandNo;
+
+    // Neighbors in the use list of the value.
+    Use prev;
+    Use next;
+
+    Use(Value value, User user, int operandNo) {
+        this.value = value;
+        this.user = user;
+        this.operandNo = operandNo;
+    }
+
+    public Value getValue() {
+        return value;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public int getOperandNo() {
+        return operandNo;
+    }
+
+    public Use getNext() {
+        return next;
+    }
+}
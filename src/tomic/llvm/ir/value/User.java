@@ -8,56 +8,125 @@ package tomic.llvm.ir.value;
 
 import tomic.llvm.ir.type.Type;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 public abstract class User extends Value {
-    LinkedList<Value> operands;
+    private static final Use[] NO_OPERANDS = new Use[0];
+
+    private Use[] operands = NO_OPERANDS;
+    private int operandCount = 0;
 
     protected User(ValueTypes valueType, Type type) {
         super(valueType, type);
-        operands = new LinkedList<>();
     }
 
-    public void addOperand(Value operand) {
-        if (operands.contains(operand)) {
-            return;
+    /**
+     * Append an operand. The same value can be added more than once.
+     */
+    protected void addOperand(Value operand) {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, Math.max(4, operandCount * 2));
         }
-        operands.add(operand);
-        operand.addUser(this);
+        operands[operandCount] = link(operand, operandCount);
+        operandCount++;
     }
 
-    public void addOperands(Iterable<Value> operands) {
+    protected void addOperands(Iterable<? extends Value> operands) {
         operands.forEach(this::addOperand);
     }
 
-    public boolean removeOperand(Value operand) {
-        if (operands.contains(operand)) {
-            operands.remove(operand);
-            operand.removeUser(this);
-            return true;
-        }
-        return false;
+    public void setOperand(int index, Value operand) {
+        checkIndex(index);
+        unlink(operands[index]);
+        operands[index] = link(operand, index);
     }
 
+    /**
+     * Replace all occurrences of an operand.
+     *
+     * @return whether the operand is found
+     */
     public boolean replaceOperand(Value oldOperand, Value newOperand) {
-        if (removeOperand(oldOperand)) {
-            addOperand(newOperand);
-            return true;
+        boolean replaced = false;
+        for (int i = 0; i < operandCount; i++) {
+            if (operands[i].getValue() == oldOperand) {
+                setOperand(i, newOperand);
+                replaced = true;
+            }
         }
-        return false;
+        return replaced;
     }
 
+    /**
+     * Drop all operands, the user is no longer a use of them.
+     */
     public void removeOperands() {
-        operands.forEach(operand -> operand.removeUser(this));
-        operands.clear();
+        for (int i = 0; i < operandCount; i++) {
+            unlink(operands[i]);
+            operands[i] = null;
+        }
+        operandCount = 0;
     }
 
     public Value getOperand(int index) {
-        return operands.get(index);
+        checkIndex(index);
+        return operands[index].getValue();
     }
 
+    public Use getOperandUse(int index) {
+        checkIndex(index);
+        return operands[index];
+    }
+
+    public int getOperandCount() {
+        return operandCount;
+    }
+
+    /**
+     * Operands in order, as a view that follows later changes.
+     */
     public List<Value> getOperands() {
-        return operands;
+        return new AbstractList<>() {
+            @Override
+            public Value get(int index) {
+                return getOperand(index);
+            }
+
+            @Override
+            public int size() {
+                return operandCount;
+            }
+        };
+    }
+
+    boolean usesMoreThanOnce(Value value) {
+        boolean found = false;
+        for (int i = 0; i < operandCount; i++) {
+            if (operands[i].getValue() == value) {
+                if (found) {
+                    return true;
+                }
+                found = true;
+            }
+        }
+        return false;
+    }
+
+    private Use link(Value value, int index) {
+        var use = new Use(value, this, index);
+        value.addUse(use);
+        return use;
+    }
+
+    private static void unlink(Use use) {
+        use.getValue().removeUse(use);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= operandCount) {
+            throw new IndexOutOfBoundsException("Operand " + index + " out of " + operandCount);
+        }
     }
 }
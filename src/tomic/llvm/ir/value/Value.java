@@ -10,45 +10,107 @@ import tomic.llvm.asm.IAsmWriter;
 import tomic.llvm.ir.LlvmContext;
 import tomic.llvm.ir.type.*;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 public class Value {
     private final ValueTypes valueType;
     private final Type type;
-    protected final LinkedList<User> users;
     private String name;
 
+    // Uses of this value, in the order they are added.
+    private Use firstUse;
+    private Use lastUse;
+    private int useCount;
+
     protected Value(ValueTypes valueType, Type type) {
         this.valueType = valueType;
         this.type = type;
         this.name = null;
-        this.users = new LinkedList<>();
     }
 
-    public void addUser(User user) {
-        if (users.contains(user)) {
-            return;
+    void addUse(Use use) {
+        use.prev = lastUse;
+        use.next = null;
+        if (lastUse == null) {
+            firstUse = use;
+        } else {
+            lastUse.next = use;
         }
-        users.add(user);
+        lastUse = use;
+        useCount++;
     }
 
-    public void addUsers(Iterable<User> users) {
-        users.forEach(this::addUser);
+    void removeUse(Use use) {
+        if (use.prev == null) {
+            firstUse = use.next;
+        } else {
+            use.prev.next = use.next;
+        }
+        if (use.next == null) {
+            lastUse = use.prev;
+        } else {
+            use.next.prev = use.prev;
+        }
+        use.prev = use.next = null;
+        useCount--;
     }
 
-    public boolean removeUser(User user) {
-        return users.remove(user);
+    /**
+     * First use of this value, follow {@link Use#getNext()} for the rest.
+     */
+    public Use getFirstUse() {
+        return firstUse;
+    }
+
+    public int getUseCount() {
+        return useCount;
     }
 
-    public void removeUsers() {
-        users.forEach(user -> user.removeOperand(this));
-        users.clear();
+    public boolean hasUses() {
+        return useCount > 0;
     }
 
-    public LinkedList<User> getUsers() {
+    /**
+     * Users of this value, each once, in the order of their first use.
+     */
+    public List<User> getUsers() {
+        var users = new ArrayList<User>(useCount);
+        Set<User> repeated = null;
+        for (var use = firstUse; use != null; use = use.next) {
+            var user = use.getUser();
+            if (!user.usesMoreThanOnce(this)) {
+                users.add(user);
+            } else {
+                if (repeated == null) {
+                    repeated = Collections.newSetFromMap(new IdentityHashMap<>());
+                }
+                if (repeated.add(user)) {
+                    users.add(user);
+                }
+            }
+        }
         return users;
     }
 
+    /**
+     * Replace all uses of this value with another one.
+     */
+    public void replaceAllUsesWith(Value value) {
+        if (value == this) {
+            return;
+        }
+        var use = firstUse;
+        while (use != null) {
+            var next = use.next;
+            use.getUser().setOperand(use.getOperandNo(), value);
+            use = next;
+        }
+    }
+
     public String getName() {
         return name;
     }
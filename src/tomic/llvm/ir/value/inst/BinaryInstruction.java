@@ -11,36 +11,17 @@ import tomic.llvm.ir.value.Value;
 import tomic.llvm.ir.value.ValueTypes;
 
 public class BinaryInstruction extends Instruction {
-    protected Value leftOperand;
-    protected Value rightOperand;
-
     public BinaryInstruction(ValueTypes valueType, Type type, Value lhs, Value rhs) {
         super(valueType, type);
-        leftOperand = lhs;
-        rightOperand = rhs;
-        addOperand(leftOperand);
-        addOperand(rightOperand);
+        addOperand(lhs);
+        addOperand(rhs);
     }
 
     public Value getLeftOperand() {
-        return leftOperand;
+        return getOperand(0);
     }
 
     public Value getRightOperand() {
-        return rightOperand;
-    }
-
-    @Override
-    public boolean replaceOperand(Value oldOperand, Value newOperand) {
-        if (super.replaceOperand(oldOperand, newOperand)) {
-            if (leftOperand == oldOperand) {
-                leftOperand = newOperand;
-            }
-            if (rightOperand == oldOperand) {
-                rightOperand = newOperand;
-            }
-            return true;
-        }
-        return false;
+        return getOperand(1);
     }
 }
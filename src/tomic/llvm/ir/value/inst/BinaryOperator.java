@@ -30,6 +30,13 @@ public class BinaryOperator extends BinaryInstruction {
         return opType;
     }
 
+    /**
+     * Whether the operands can be swapped without changing the result.
+     */
+    public boolean isCommutative() {
+        return opType == BinaryOpTypes.Add || opType == BinaryOpTypes.Mul;
+    }
+
     @Override
     public IAsmWriter printAsm(IAsmWriter out) {
         String op = switch (opType) {
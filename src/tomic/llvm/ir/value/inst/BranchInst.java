@@ -12,60 +12,31 @@ import tomic.llvm.ir.value.Value;
 import tomic.llvm.ir.value.ValueTypes;
 
 public class BranchInst extends Instruction {
-    private Value condition;
-    private BasicBlock trueBlock;
-    private BasicBlock falseBlock;
-
     public BranchInst(Value condition, BasicBlock trueBlock, BasicBlock falseBlock) {
         super(ValueTypes.BranchInstTy, condition.getContext().getVoidTy());
-        this.condition = condition;
-        this.trueBlock = trueBlock;
-        this.falseBlock = falseBlock;
-
         addOperand(condition);
         addOperand(trueBlock);
         addOperand(falseBlock);
     }
 
     public Value getCondition() {
-        return condition;
+        return getOperand(0);
     }
 
     public BasicBlock getTrueBlock() {
-        return trueBlock;
+        return (BasicBlock) getOperand(1);
     }
 
     public void setTrueBlock(BasicBlock trueBlock) {
-        removeOperand(this.trueBlock);
-        this.trueBlock = trueBlock;
-        addOperand(trueBlock);
+        setOperand(1, trueBlock);
     }
 
     public BasicBlock getFalseBlock() {
-        return falseBlock;
+        return (BasicBlock) getOperand(2);
     }
 
     public void setFalseBlock(BasicBlock falseBlock) {
-        removeOperand(this.falseBlock);
-        this.falseBlock = falseBlock;
-        addOperand(falseBlock);
-    }
-
-    @Override
-    public boolean replaceOperand(Value oldOperand, Value newOperand) {
-        if (super.replaceOperand(oldOperand, newOperand)) {
-            if (condition == oldOperand) {
-                condition = newOperand;
-            }
-            if (trueBlock == oldOperand) {
-                trueBlock = (BasicBlock) newOperand;
-            }
-            if (falseBlock == oldOperand) {
-                falseBlock = (BasicBlock) newOperand;
-            }
-            return true;
-        }
-        return false;
+        setOperand(2, falseBlock);
     }
 
     /**
@@ -74,8 +45,8 @@ public class BranchInst extends Instruction {
     @Override
     public IAsmWriter printAsm(IAsmWriter out) {
         out.push("br").pushSpace();
-        condition.printUse(out).push(',').pushSpace();
-        trueBlock.printUse(out).push(',').pushSpace();
-        return falseBlock.printUse(out).pushNewLine();
+        getCondition().printUse(out).push(',').pushSpace();
+        getTrueBlock().printUse(out).push(',').pushSpace();
+        return getFalseBlock().printUse(out).pushNewLine();
     }
 }
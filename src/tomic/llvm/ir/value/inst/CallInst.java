@@ -15,8 +15,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class CallInst extends Instruction {
-    private Function function;
-    private ArrayList<Value> parameters;
+    // Not an operand, calls are not uses of the function.
+    private final Function function;
 
     public CallInst(Function function) {
         this(function, new ArrayList<>());
@@ -25,56 +25,29 @@ public class CallInst extends Instruction {
     public CallInst(Function function, List<Value> parameters) {
         super(ValueTypes.CallInstTy, function.getReturnType());
         this.function = function;
-        this.parameters = new ArrayList<>(parameters);
-
-        /*
-         * 2023/11/29 TS: FIX
-         * Remember to add operands to the instruction...
-         */
         addOperands(parameters);
     }
 
-    public ArrayList<Value> getParameters() {
-        return parameters;
+    public List<Value> getParameters() {
+        return getOperands();
     }
 
     public int getParamCount() {
-        return parameters.size();
+        return getOperandCount();
     }
 
     public Value getParam(int index) {
-        return parameters.get(index);
+        return getOperand(index);
     }
 
     public List<Value> getParams() {
-        return parameters;
+        return getOperands();
     }
 
     public Function getFunction() {
         return function;
     }
 
-    @Override
-    public boolean replaceOperand(Value oldOperand, Value newOperand) {
-        if (!super.replaceOperand(oldOperand, newOperand)) {
-            return false;
-        }
-
-        if (function == oldOperand) {
-            function = (Function) newOperand;
-        } else {
-            // WARNING! Must preserve the order! And find all the occurrences!
-            int index = parameters.indexOf(oldOperand);
-            while (index != -1) {
-                parameters.remove(index);
-                parameters.add(index, newOperand);
-                index = parameters.indexOf(oldOperand);
-            }
-        }
-
-        return true;
-    }
-
     @Override
     public IAsmWriter printAsm(IAsmWriter out) {
         if (!getType().isVoidTy()) {
@@ -86,7 +59,7 @@ public class CallInst extends Instruction {
 
         getFunction().printName(out).push('(');
         boolean first = true;
-        for (var param : parameters) {
+        for (var param : getParameters()) {
             if (!first) {
                 out.push(", ");
             }
@@ -34,7 +34,7 @@ public class CompInst extends BinaryInstruction {
 
     // Compare with zero.
     public CompInst(Value operand, CompOpTypes opType) {
-        this(operand, new ConstantData(operand.getType(), 0), opType);
+        this(operand, ConstantData.get(operand.getType(), 0), opType);
     }
 
     public CompOpTypes getOpType() {
@@ -46,8 +46,8 @@ public class CompInst extends BinaryInstruction {
     public IAsmWriter printAsm(IAsmWriter out) {
         printName(out).pushNext('=').pushNext("icmp").pushSpace();
         out.push(getOpType().toString().toLowerCase()).pushSpace();
-        leftOperand.getType().printAsm(out).pushSpace();
-        leftOperand.printName(out).push(',').pushSpace();
-        return rightOperand.printName(out).pushNewLine();
+        getLeftOperand().getType().printAsm(out).pushSpace();
+        getLeftOperand().printName(out).push(',').pushSpace();
+        return getRightOperand().printName(out).pushNewLine();
     }
 }
@@ -14,17 +14,11 @@ import tomic.llvm.ir.value.ConstantData;
 import tomic.llvm.ir.value.Value;
 import tomic.llvm.ir.value.ValueTypes;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class GetElementPtrInst extends Instruction {
-    private Value address;
-    private final ArrayList<Value> subscripts;
-
     private GetElementPtrInst(Type type, Value address, List<Value> subscripts) {
         super(ValueTypes.GetElementPtrInstTy, type);
-        this.address = address;
-        this.subscripts = new ArrayList<>(subscripts);
         addOperand(address);
         addOperands(subscripts);
     }
@@ -45,15 +39,18 @@ public class GetElementPtrInst extends Instruction {
     }
 
     public Value getAddress() {
-        return address;
+        return getOperand(0);
     }
 
-    public ArrayList<Value> getSubscripts() {
-        return subscripts;
+    /**
+     * Operands after the address.
+     */
+    public List<Value> getSubscripts() {
+        return getOperands().subList(1, getOperandCount());
     }
 
     public boolean hasFixedDimension() {
-        for (var subscript : subscripts) {
+        for (var subscript : getSubscripts()) {
             if (!(subscript instanceof ConstantData)) {
                 return false;
             }
@@ -61,34 +58,15 @@ public class GetElementPtrInst extends Instruction {
         return true;
     }
 
-    @Override
-    public boolean replaceOperand(Value oldOperand, Value newOperand) {
-        if (!super.replaceOperand(oldOperand, newOperand)) {
-            return false;
-        }
-        if (address == oldOperand) {
-            address = newOperand;
-        } else {
-            // WARNING! Must preserve the order! And find all the occurrences!
-            int index = subscripts.indexOf(oldOperand);
-            while (index != -1) {
-                subscripts.remove(index);
-                subscripts.add(index, newOperand);
-                index = subscripts.indexOf(oldOperand);
-            }
-        }
-        return true;
-    }
-
     /**
      * %3 = getelementptr [5 x [7 x i32]], [5 x [7 x i32]]* @a, i32 0, i32 3, i32 4
      */
     @Override
     public IAsmWriter printAsm(IAsmWriter out) {
         printName(out).pushNext('=').pushNext("getelementptr inbounds").pushSpace();
-        address.getPointerType().getElementType().printAsm(out).push(',').pushSpace();
-        address.printUse(out);
-        for (Value subscript : subscripts) {
+        getAddress().getPointerType().getElementType().printAsm(out).push(',').pushSpace();
+        getAddress().printUse(out);
+        for (Value subscript : getSubscripts()) {
             out.push(',').pushSpace();
             subscript.printUse(out);
         }
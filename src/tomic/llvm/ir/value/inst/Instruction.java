@@ -11,12 +11,23 @@ import tomic.llvm.ir.Module;
 import tomic.llvm.ir.type.Type;
 import tomic.llvm.ir.value.BasicBlock;
 import tomic.llvm.ir.value.Function;
+import tomic.llvm.ir.value.IListNode;
+import tomic.llvm.ir.value.IntrusiveList;
 import tomic.llvm.ir.value.User;
 import tomic.llvm.ir.value.ValueTypes;
 
-public abstract class Instruction extends User {
+public abstract class Instruction extends User implements IListNode<Instruction> {
     private BasicBlock parent;
 
+    // Links in the instruction list of the parent.
+    private Instruction prev;
+    private Instruction next;
+    private IntrusiveList<?> list;
+
+    // Set by ProgramOrder, valid only if the stamp is its current one.
+    private int orderStamp = -1;
+    private int orderIndex;
+
     protected Instruction(ValueTypes valueType, Type type) {
         super(valueType, type);
     }
@@ -37,8 +48,73 @@ public abstract class Instruction extends User {
         return getParentFunction().getParent();
     }
 
+    /**
+     * Index of this instruction in its block.
+     */
     public int getIndex() {
-        return getParent().getInstructions().indexOf(this);
+        int index = getParentFunction().getProgramOrder().indexInBlock(this);
+        if (index >= 0) {
+            return index;
+        }
+        // The block is not in the function, count it out.
+        index = 0;
+        for (var inst = prev; inst != null; inst = inst.prev) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Ordinal of this instruction in the function, or -1 if not in it.
+     */
+    public int ordinal() {
+        return getParentFunction().getProgramOrder().ordinal(this);
+    }
+
+    public int getOrderStamp() {
+        return orderStamp;
+    }
+
+    public int getOrderIndex() {
+        return orderIndex;
+    }
+
+    /**
+     * Only for {@link tomic.llvm.ir.ProgramOrder}.
+     */
+    public void setOrder(int stamp, int index) {
+        orderStamp = stamp;
+        orderIndex = index;
+    }
+
+    @Override
+    public Instruction getPrev() {
+        return prev;
+    }
+
+    @Override
+    public Instruction getNext() {
+        return next;
+    }
+
+    @Override
+    public void setPrev(Instruction prev) {
+        this.prev = prev;
+    }
+
+    @Override
+    public void setNext(Instruction next) {
+        this.next = next;
+    }
+
+    @Override
+    public IntrusiveList<?> getList() {
+        return list;
+    }
+
+    @Override
+    public void setList(IntrusiveList<?> list) {
+        this.list = list;
     }
 
     @Override
@@ -8,34 +8,28 @@ package tomic.llvm.ir.value.inst;
 
 import tomic.llvm.asm.IAsmWriter;
 import tomic.llvm.ir.value.BasicBlock;
-import tomic.llvm.ir.value.Value;
 import tomic.llvm.ir.value.ValueTypes;
 
 // Just BranchInst without condition.
 public class JumpInst extends Instruction {
-    private BasicBlock target;
     private final boolean isReturn;
 
     public JumpInst(BasicBlock target) {
         this(target, false);
-        addOperand(target);
     }
 
     public JumpInst(BasicBlock target, boolean isReturn) {
         super(ValueTypes.JumpInstTy, target.getContext().getVoidTy());
-        this.target = target;
         this.isReturn = isReturn;
         addOperand(target);
     }
 
     public BasicBlock getTarget() {
-        return target;
+        return (BasicBlock) getOperand(0);
     }
 
     public void setTarget(BasicBlock target) {
-        removeOperand(this.target);
-        this.target = target;
-        addOperand(target);
+        setOperand(0, target);
     }
 
 
@@ -43,23 +37,12 @@ public class JumpInst extends Instruction {
         return isReturn;
     }
 
-    @Override
-    public boolean replaceOperand(Value oldOperand, Value newOperand) {
-        if (super.replaceOperand(oldOperand, newOperand)) {
-            if (target == oldOperand) {
-                target = (BasicBlock) newOperand;
-            }
-            return true;
-        }
-        return false;
-    }
-
     /**
      * br label %25
      */
     @Override
     public IAsmWriter printAsm(IAsmWriter out) {
         out.push("br").pushSpace();
-        return target.printUse(out).pushNewLine();
+        return getTarget().printUse(out).pushNewLine();
     }
 }
@@ -22,7 +22,7 @@ public class OutputInst extends UnaryInstruction {
     }
 
     public boolean isInteger() {
-        return operand.getType().isIntegerTy();
+        return getOperand().getType().isIntegerTy();
     }
 
     @Override
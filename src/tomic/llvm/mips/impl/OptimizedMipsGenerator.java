@@ -22,20 +22,43 @@ import tomic.llvm.mips.memory.impl.DefaultStackProfile;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * With some little optimizations.
  */
 public class OptimizedMipsGenerator implements IMipsGenerator {
+    private ITwioWriter output;
     private IMipsWriter out;
     private Module module;
     private MemoryProfile memoryProfile;
     private final IMipsPrinter printer = new StandardMipsPrinter();
     private int reservedRegisterId;
+    // Generates functions concurrently, or in turn if null.
+    private final ForkJoinPool pool;
+
+    public OptimizedMipsGenerator() {
+        this(null);
+    }
+
+    public OptimizedMipsGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Generator for a single function of the parent's module.
+     */
+    private OptimizedMipsGenerator(Module module, IMipsWriter out) {
+        this.module = module;
+        this.out = out;
+        this.pool = null;
+    }
 
     @Override
     public void generate(Module module, ITwioWriter output) {
         this.module = module;
+        this.output = output;
         this.out = new VerboseMipsWriter(output);
 
         generateHeader();
@@ -57,8 +80,26 @@ public class OptimizedMipsGenerator implements IMipsGenerator {
     private void generateText() {
         out.push(".text").pushNewLine();
         // Generate main function first.
-        generateFunction(module.getMainFunction());
-        module.getFunctions().forEach(this::generateFunction);
+        var functions = new ArrayList<Function>();
+        functions.add(module.getMainFunction());
+        functions.addAll(module.getFunctions());
+        if (pool == null) {
+            functions.forEach(this::generateFunction);
+            return;
+        }
+
+        /*
+         * Each function has its own memory profile, so they can be
+         * generated apart into buffers, and written in the same order.
+         */
+        var buffers = new TwioBufferWriter[functions.size()];
+        pool.submit(() -> IntStream.range(0, functions.size()).parallel().forEach(i -> {
+            buffers[i] = new TwioBufferWriter();
+            new OptimizedMipsGenerator(module, new VerboseMipsWriter(buffers[i])).generateFunction(functions.get(i));
+        })).join();
+        for (var buffer : buffers) {
+            buffer.writeTo(output);
+        }
     }
 
     private void generateGlobalVariable(GlobalVariable variable) {
@@ -126,7 +167,7 @@ public class OptimizedMipsGenerator implements IMipsGenerator {
         out.push(function.getName()).push(":").pushNewLine();
         // Store $ra register if not main.
         if (!function.getName().equals("main")) {
-            out.pushIndent().pushIndent();
+            out.pushIndents(2);
             printer.printSaveStack(out, Registers.RA, 0);
         }
         function.getBasicBlocks().forEach(this::generateBasicBlock);
@@ -781,26 +822,32 @@ public class OptimizedMipsGenerator implements IMipsGenerator {
      * @param inst The instruction just generated.
      */
     private void postGenerateInstruction(Instruction inst) {
+        var function = inst.getParentFunction();
+        int ordinal = inst.ordinal();
         for (var operand : inst.getOperands()) {
-            int blockIndex = -1;
-            int instIndex = -1;
-            for (var user : operand.getUsers()) {
-                if (user instanceof Instruction instruction) {
-                    int temp = instruction.getParent().getIndex();
-                    if (blockIndex == temp) {
-                        instIndex = Math.max(instIndex, instruction.getIndex());
-                    } else if (blockIndex < temp) {
-                        blockIndex = temp;
-                        instIndex = instruction.getIndex();
-                    }
-                }
-            }
-            if ((inst.getParent().getIndex() == blockIndex) && (inst.getIndex() == instIndex)) {
+            // Constants are shared, and their uses not tracked, so each use is the last.
+            if ((operand instanceof ConstantData) || lastUseOf(operand, function) == ordinal) {
                 memoryProfile.getRegisterProfile().release(operand);
             }
         }
     }
 
+    /**
+     * Ordinal of the last instruction in the function that uses the value.
+     * Only values local to the function are kept in registers, so uses in
+     * other functions don't matter.
+     */
+    private int lastUseOf(Value value, Function function) {
+        var order = function.getProgramOrder();
+        int last = -1;
+        for (var use = value.getFirstUse(); use != null; use = use.getNext()) {
+            if (use.getUser() instanceof Instruction user && user.getParentFunction() == function) {
+                last = Math.max(last, order.ordinal(user));
+            }
+        }
+        return last;
+    }
+
     private boolean isJumpToNeighboring(BasicBlock from, BasicBlock to) {
         if (from.getIndex() + 1 != to.getIndex()) {
             return false;
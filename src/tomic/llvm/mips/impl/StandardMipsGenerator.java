@@ -131,7 +131,7 @@ public class StandardMipsGenerator implements IMipsGenerator {
         out.push(function.getName()).push(":").pushNewLine();
         // Store $ra register if not main.
         if (!function.getName().equals("main")) {
-            out.pushIndent().pushIndent();
+            out.pushIndents(2);
             printer.printSaveStack(out, Registers.RA, 0);
         }
         function.getBasicBlocks().forEach(this::generateBasicBlock);
@@ -23,28 +23,25 @@ public class VerboseMipsWriter extends BaseAsmWriter implements IMipsWriter {
 
     @Override
     public IMipsWriter push(char ch) {
-        if (isNewLine) {
-            isNewLine = false;  // prevent re-entry
-            for (var i = 0; i < currentIndent; ++i) {
-                pushIndent();
-            }
-        }
+        beginLine();
         super.push(ch);
         return this;
     }
 
     @Override
     public IMipsWriter push(String str) {
-        if (isNewLine) {
-            isNewLine = false;  // prevent re-entry
-            for (var i = 0; i < currentIndent; ++i) {
-                pushIndent();
-            }
-        }
+        beginLine();
         super.push(str);
         return this;
     }
 
+    @Override
+    public IMipsWriter pushSpaces(int count) {
+        beginLine();
+        super.pushSpaces(count);
+        return this;
+    }
+
     @Override
     public IMipsWriter pushLabel(String label) {
         push(label).push(':').pushNewLine();
@@ -85,6 +82,12 @@ public class VerboseMipsWriter extends BaseAsmWriter implements IMipsWriter {
         return this;
     }
 
+    private void beginLine() {
+        if (isNewLine) {
+            isNewLine = false;  // prevent re-entry
+            super.pushIndents(currentIndent);
+        }
+    }
 
     @Override
     public String dumps() {
@@ -17,6 +17,7 @@ import tomic.llvm.mips.memory.Registers;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,7 +39,9 @@ public class DefaultRegisterProfile implements IRegisterProfile {
 
     public DefaultRegisterProfile(IStackProfile stackProfile, IMipsWriter out) {
         this.availableRegisters = new HashSet<>(ALL_REGISTERS);
-        this.valueRegisterMap = new HashMap<>();
+        // Values are yielded in the order they got registers, so the
+        // output doesn't depend on their hash codes.
+        this.valueRegisterMap = new LinkedHashMap<>();
         this.activeRegisters = new HashMap<>();
 
         this.stackProfile = stackProfile;
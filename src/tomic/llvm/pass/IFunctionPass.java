@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.llvm.pass;
+
+import tomic.llvm.ir.Module;
+import tomic.llvm.ir.value.Function;
+
+/**
+ * A pass that only looks at one function at a time. It may run on
+ * different functions concurrently, so it should keep no state of a
+ * function in its fields.
+ */
+public interface IFunctionPass extends ILlvmPass {
+    /**
+     * Run the pass on a single function.
+     */
+    void run(Function function);
+
+    @Override
+    default void run(Module module) {
+        module.getAllFunctions().forEach(this::run);
+    }
+}
@@ -7,22 +7,36 @@
 package tomic.llvm.pass;
 
 import tomic.llvm.ir.Module;
+import tomic.llvm.ir.value.DeferredUsers;
+import tomic.llvm.ir.value.Function;
 import tomic.logger.debug.IDebugLogger;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
- * Manage the passes.
+ * Manage the passes. Consecutive function passes are run as a pipeline
+ * on each function, in the registered order. Other passes run on the
+ * whole module, after the functions are done with earlier passes.
  */
 public class PassManager {
     private final ArrayList<ILlvmPass> passes;
     private final IPassProvider provider;
     private final IDebugLogger logger;
+    // Runs function pipelines concurrently, or in turn if null.
+    private final ForkJoinPool pool;
 
     public PassManager(IPassProvider provider, IDebugLogger logger) {
+        this(provider, logger, null);
+    }
+
+    public PassManager(IPassProvider provider, IDebugLogger logger, ForkJoinPool pool) {
         this.passes = new ArrayList<>();
         this.provider = provider;
         this.logger = logger;
+        this.pool = pool;
         provider.registerPasses(this);
     }
 
@@ -38,10 +52,55 @@ public class PassManager {
      * Run all the passes.
      */
     public void run(Module module) {
-        for (var pass : passes) {
-            logger.info("Running pass: " + pass.getClass().getSimpleName());
-            pass.run(module);
+        int i = 0;
+        while (i < passes.size()) {
+            if (!(passes.get(i) instanceof IFunctionPass)) {
+                logger.info("Running pass: " + passes.get(i).getClass().getSimpleName());
+                passes.get(i).run(module);
+                i++;
+                continue;
+            }
+
+            var pipeline = new ArrayList<IFunctionPass>();
+            for (; i < passes.size() && passes.get(i) instanceof IFunctionPass pass; i++) {
+                logger.info("Running pass: " + pass.getClass().getSimpleName());
+                pipeline.add(pass);
+            }
+            runPipeline(module, pipeline);
         }
         module.trace();
     }
+
+    /**
+     * Run function passes on each function. Changes to users of global
+     * values are deferred when run concurrently, so that the result is
+     * the same as run in turn.
+     */
+    private void runPipeline(Module module, List<IFunctionPass> pipeline) {
+        var functions = module.getAllFunctions();
+        if (pool == null) {
+            functions.forEach(function -> runPipeline(function, pipeline));
+            return;
+        }
+
+        var deferred = new DeferredUsers[functions.size()];
+        pool.submit(() -> IntStream.range(0, functions.size()).parallel().forEach(i -> {
+            deferred[i] = new DeferredUsers();
+            deferred[i].begin();
+            try {
+                runPipeline(functions.get(i), pipeline);
+            } finally {
+                deferred[i].end();
+            }
+        })).join();
+        for (var users : deferred) {
+            users.commit();
+        }
+    }
+
+    private static void runPipeline(Function function, List<IFunctionPass> pipeline) {
+        for (var pass : pipeline) {
+            pass.run(function);
+        }
+    }
 }
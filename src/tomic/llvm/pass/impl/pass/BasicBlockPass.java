@@ -6,18 +6,13 @@
 
 package tomic.llvm.pass.impl.pass;
 
-import tomic.llvm.ir.Module;
 import tomic.llvm.ir.value.BasicBlock;
 import tomic.llvm.ir.value.Function;
-import tomic.llvm.pass.ILlvmPass;
+import tomic.llvm.pass.IFunctionPass;
 
-public abstract class BasicBlockPass implements ILlvmPass {
+public abstract class BasicBlockPass implements IFunctionPass {
     @Override
-    public void run(Module module) {
-        module.getAllFunctions().forEach(this::handleFunction);
-    }
-
-    private void handleFunction(Function function) {
+    public void run(Function function) {
         function.getBasicBlocks().forEach(this::handleBasicBlock);
     }
 
@@ -24,19 +24,16 @@ import java.util.Set;
  * of operator will not be the same.
  */
 public class CombineCommonExpressionPass extends BasicBlockPass {
-    private final Set<Integer> handled = new HashSet<>();
-    private final ArrayList<Instruction> instructionsToRemove = new ArrayList<>();
-
     @Override
     protected void handleBasicBlock(BasicBlock basicBlock) {
-        handled.clear();
-        instructionsToRemove.clear();
+        Set<Integer> handled = new HashSet<>();
+        ArrayList<Instruction> instructionsToRemove = new ArrayList<>();
         ArrayList<Instruction> instructions = new ArrayList<>(basicBlock.getInstructions());
 
-        int index = findNextCandidate(instructions, 0);
+        int index = findNextCandidate(instructions, 0, handled);
         while (index != -1) {
-            handleInstruction(instructions.get(index), instructions, index);
-            index = findNextCandidate(instructions, index + 1);
+            handleInstruction(instructions.get(index), instructions, index, handled, instructionsToRemove);
+            index = findNextCandidate(instructions, index + 1, handled);
         }
 
         for (var inst : instructionsToRemove) {
@@ -44,7 +41,7 @@ public class CombineCommonExpressionPass extends BasicBlockPass {
         }
     }
 
-    private int findNextCandidate(List<Instruction> instructions, int start) {
+    private int findNextCandidate(List<Instruction> instructions, int start, Set<Integer> handled) {
         for (int i = start; i < instructions.size(); i++) {
             if (handled.contains(i)) {
                 continue;
@@ -59,21 +56,23 @@ public class CombineCommonExpressionPass extends BasicBlockPass {
         return -1;
     }
 
-    private void handleInstruction(Instruction instruction, List<Instruction> instructions, int index) {
+    private void handleInstruction(Instruction instruction, List<Instruction> instructions, int index,
+                                   Set<Integer> handled, List<Instruction> instructionsToRemove) {
         if (instruction instanceof BinaryOperator inst) {
-            handleBinaryOperator(inst, instructions, index);
+            handleBinaryOperator(inst, instructions, index, handled, instructionsToRemove);
         } else if (instruction instanceof UnaryOperator inst) {
-            handleUnaryOperator(inst, instructions, index);
+            handleUnaryOperator(inst, instructions, index, handled, instructionsToRemove);
         }
     }
 
-    private void handleBinaryOperator(BinaryOperator source, List<Instruction> instructions, int index) {
+    private void handleBinaryOperator(BinaryOperator source, List<Instruction> instructions, int index,
+                                      Set<Integer> handled, List<Instruction> instructionsToRemove) {
         handled.add(index);
 
         for (int i = index + 1; i < instructions.size(); i++) {
             if (instructions.get(i) instanceof BinaryOperator inst) {
                 if (match(source, inst)) {
-                    inst.getUsers().forEach(user -> user.replaceOperand(inst, source));
+                    inst.replaceAllUsesWith(source);
                     instructionsToRemove.add(inst);
                     handled.add(i);
                 }
@@ -81,13 +80,14 @@ public class CombineCommonExpressionPass extends BasicBlockPass {
         }
     }
 
-    private void handleUnaryOperator(UnaryOperator source, List<Instruction> instructions, int index) {
+    private void handleUnaryOperator(UnaryOperator source, List<Instruction> instructions, int index,
+                                     Set<Integer> handled, List<Instruction> instructionsToRemove) {
         handled.add(index);
 
         for (int i = index + 1; i < instructions.size(); i++) {
             if (instructions.get(i) instanceof UnaryOperator inst) {
                 if (match(source, inst)) {
-                    PassExt.replaceOperand(inst, source);
+                    inst.replaceAllUsesWith(source);
                     instructionsToRemove.add(inst);
                     handled.add(i);
                 }
@@ -102,7 +102,7 @@ public class CombineCommonExpressionPass extends BasicBlockPass {
         if (inst1.getLeftOperand() == inst2.getLeftOperand() && inst1.getRightOperand() == inst2.getRightOperand()) {
             return true;
         }
-        if (inst1.getLeftOperand() == inst2.getRightOperand() && inst1.getRightOperand() == inst2.getLeftOperand()) {
+        if (inst1.isCommutative() && inst1.getLeftOperand() == inst2.getRightOperand() && inst1.getRightOperand() == inst2.getLeftOperand()) {
             return true;
         }
 
@@ -19,42 +19,41 @@ public class CombineUnaryOperatorPass extends BasicBlockPass {
         ArrayList<Instruction> instructionsToRemove = new ArrayList<>();
         var instructions = basicBlock.getInstructions();
 
-        int i = 0;
         // The last instruction is always a branch instruction.
-        while (i < instructions.size() - 1) {
-            var inst = instructions.get(i);
+        var inst = instructions.isEmpty() ? null : instructions.getFirst();
+        while (inst != null && inst.getNext() != null) {
             if (!(inst instanceof UnaryOperator current)) {
-                i++;
+                inst = inst.getNext();
                 continue;
             }
 
             if (canRemove(current)) {
                 instructionsToRemove.add(inst);
-                i++;
+                inst = inst.getNext();
                 continue;
             }
 
-            if (instructions.get(i + 1) instanceof UnaryOperator next) {
+            if (inst.getNext() instanceof UnaryOperator next) {
                 if (canRemove(current, next)) {
                     removeInstructionPair(current, next);
                     instructionsToRemove.add(next);
                     instructionsToRemove.add(current);
-                    i += 2;
+                    inst = next.getNext();
                     continue;
                 }
             }
 
-            i++;
+            inst = inst.getNext();
         }
 
-        for (var inst : instructionsToRemove) {
-            basicBlock.removeInstruction(inst);
+        for (var instruction : instructionsToRemove) {
+            basicBlock.removeInstruction(instruction);
         }
     }
 
     private void removeInstructionPair(UnaryOperator current, UnaryOperator next) {
         Value source = current.getOperand();
-        PassExt.replaceOperand(next, source);
+        next.replaceAllUsesWith(source);
     }
 
     private boolean canRemove(UnaryOperator operator) {
@@ -58,6 +58,6 @@ public class OptimizeArrayPass extends BasicBlockPass {
         var inst = GetElementPtrInst.create(src.getAddress(), subscripts);
         dst.getParent().insertInstructionAfter(inst, dst);
 
-        PassExt.replaceOperand(dst, inst);
+        dst.replaceAllUsesWith(inst);
     }
 }
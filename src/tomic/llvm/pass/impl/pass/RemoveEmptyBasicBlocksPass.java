@@ -6,12 +6,11 @@
 
 package tomic.llvm.pass.impl.pass;
 
-import tomic.llvm.ir.Module;
 import tomic.llvm.ir.value.BasicBlock;
 import tomic.llvm.ir.value.Function;
 import tomic.llvm.ir.value.inst.BranchInst;
 import tomic.llvm.ir.value.inst.JumpInst;
-import tomic.llvm.pass.ILlvmPass;
+import tomic.llvm.pass.IFunctionPass;
 
 import java.util.ArrayList;
 
@@ -19,16 +18,14 @@ import java.util.ArrayList;
  * Clean up LLVM IR. This should be the last pass.
  * Remove empty basic blocks.
  */
-public class RemoveEmptyBasicBlocksPass implements ILlvmPass {
+public class RemoveEmptyBasicBlocksPass implements IFunctionPass {
     @Override
-    public void run(Module module) {
-        for (var function : module.getAllFunctions()) {
-            if (cleanUpFunction(function)) {
-                while (cleanUpFunction(function)) {
-                    continue;
-                }
-                replaceBranchWithSameTarget(function);
+    public void run(Function function) {
+        if (cleanUpFunction(function)) {
+            while (cleanUpFunction(function)) {
+                continue;
             }
+            replaceBranchWithSameTarget(function);
         }
     }
 
@@ -42,12 +39,14 @@ public class RemoveEmptyBasicBlocksPass implements ILlvmPass {
      * @return If clean up happens.
      */
     private boolean cleanUpFunction(Function function) {
-        var basicBlocks = function.getBasicBlocks();
         ArrayList<JumpPair> blocksToRemove = new ArrayList<>();
 
-        for (int i = 0; i < basicBlocks.size() - 1; i++) {
-            var basicBlock = basicBlocks.get(i);
-            var nextBlock = basicBlocks.get(i + 1);
+        var basicBlocks = function.getBasicBlocks();
+        if (basicBlocks.isEmpty()) {
+            return false;
+        }
+        for (var basicBlock = basicBlocks.getFirst(); basicBlock.getNext() != null; basicBlock = basicBlock.getNext()) {
+            var nextBlock = basicBlock.getNext();
 
             var instructions = basicBlock.getInstructions();
             if (instructions.size() > 1) {
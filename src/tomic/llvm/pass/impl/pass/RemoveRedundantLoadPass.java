@@ -19,21 +19,19 @@ import java.util.Set;
  * This should be restricted in one basic block.
  */
 public class RemoveRedundantLoadPass extends BasicBlockPass {
-    private final Set<Integer> handled = new HashSet<>();
-
     @Override
     protected void handleBasicBlock(BasicBlock block) {
-        handled.clear();
+        Set<Integer> handled = new HashSet<>();
 
-        int index = findLoadInst(block);
+        int index = findLoadInst(block, handled);
         while (index != -1) {
             handleLoadInst(block, index);
             handled.add(index);
-            index = findLoadInst(block);
+            index = findLoadInst(block, handled);
         }
     }
 
-    private int findLoadInst(BasicBlock block) {
+    private int findLoadInst(BasicBlock block, Set<Integer> handled) {
         int i = 0;
         for (var instruction : block.getInstructions()) {
             if (instruction instanceof LoadInst inst) {
@@ -66,7 +64,7 @@ public class RemoveRedundantLoadPass extends BasicBlockPass {
             if (instruction instanceof LoadInst inst) {
                 if (inst.getOperand() == source.getOperand()) {
                     // Duplicated load!
-                    PassExt.replaceOperand(inst, source);
+                    inst.replaceAllUsesWith(source);
                     block.removeInstruction(inst);
                 }
             } else if (instruction instanceof StoreInst inst) {
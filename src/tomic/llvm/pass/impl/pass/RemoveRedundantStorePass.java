@@ -12,22 +12,20 @@ import tomic.llvm.ir.value.inst.*;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class RemoveRedundantStorePass extends BasicBlockPass {
-    private final Set<Integer> handled = new HashSet<>();
-    private final ArrayList<Instruction> storeToRemove = new ArrayList<>();
-
     @Override
     protected void handleBasicBlock(BasicBlock block) {
-        handled.clear();
-        storeToRemove.clear();
+        Set<Integer> handled = new HashSet<>();
+        ArrayList<Instruction> storeToRemove = new ArrayList<>();
 
-        int index = findStoreInst(block);
+        int index = findStoreInst(block, handled);
         while (index != -1) {
-            handleStoreInst(block, index);
+            handleStoreInst(block, index, handled, storeToRemove);
             handled.add(index);
-            index = findStoreInst(block);
+            index = findStoreInst(block, handled);
         }
 
         for (var inst : storeToRemove) {
@@ -35,7 +33,7 @@ public class RemoveRedundantStorePass extends BasicBlockPass {
         }
     }
 
-    private int findStoreInst(BasicBlock block) {
+    private int findStoreInst(BasicBlock block, Set<Integer> handled) {
         ArrayList<Instruction> instructions = new ArrayList<>(block.getInstructions());
         int i = instructions.size() - 1;
         while (i >= 0) {
@@ -58,7 +56,7 @@ public class RemoveRedundantStorePass extends BasicBlockPass {
         return -1;
     }
 
-    private void handleStoreInst(BasicBlock block, int index) {
+    private void handleStoreInst(BasicBlock block, int index, Set<Integer> handled, List<Instruction> storeToRemove) {
         ArrayList<Instruction> instructions = new ArrayList<>(block.getInstructions());
         int size = instructions.size();
         StoreInst source = (StoreInst) instructions.get(index);
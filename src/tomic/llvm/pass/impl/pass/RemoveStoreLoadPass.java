@@ -13,21 +13,20 @@ import tomic.llvm.ir.value.inst.LoadInst;
 import tomic.llvm.ir.value.inst.StoreInst;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Remove load immediately preceded by store to the same address.
  */
 public class RemoveStoreLoadPass extends BasicBlockPass {
-    private final ArrayList<Instruction> loadToRemove = new ArrayList<>();
-
     @Override
     protected void handleBasicBlock(BasicBlock basicBlock) {
-        loadToRemove.clear();
+        ArrayList<Instruction> loadToRemove = new ArrayList<>();
         ArrayList<Instruction> instructions = new ArrayList<>(basicBlock.getInstructions());
 
         int index = findStoreLoad(instructions, 0);
         while (index != -1) {
-            handleStoreLoad((StoreInst) instructions.get(index), (LoadInst) instructions.get(index + 1));
+            handleStoreLoad((StoreInst) instructions.get(index), (LoadInst) instructions.get(index + 1), loadToRemove);
             index = findStoreLoad(instructions, index + 2);
         }
 
@@ -54,9 +53,9 @@ public class RemoveStoreLoadPass extends BasicBlockPass {
         return -1;
     }
 
-    private void handleStoreLoad(StoreInst storeInst, LoadInst loadInst) {
+    private void handleStoreLoad(StoreInst storeInst, LoadInst loadInst, List<Instruction> loadToRemove) {
         var value = storeInst.getLeftOperand();
-        PassExt.replaceOperand(loadInst, value);
+        loadInst.replaceAllUsesWith(value);
         loadToRemove.add(loadInst);
     }
 }
@@ -31,7 +31,7 @@ public class RemoveUnusedInstPass extends BasicBlockPass {
                 continue;
             }
 
-            if (inst.getUsers().isEmpty()) {
+            if (!inst.hasUses()) {
                 // Remove operands to cause chain reaction.
                 basicBlock.removeInstruction(inst);
             }
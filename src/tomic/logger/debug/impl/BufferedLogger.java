@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.logger.debug.impl;
+
+import lib.twio.ITwioWriter;
+import tomic.logger.debug.IDebugLogger;
+import tomic.logger.debug.LogLevel;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps messages in the order they are logged, to be passed on to another
+ * logger later. Used where messages are produced on worker threads.
+ */
+public class BufferedLogger implements IDebugLogger {
+    private final ArrayList<Entry> entries = new ArrayList<>();
+
+    @Override
+    public BufferedLogger setWriter(ITwioWriter writer) {
+        return this;
+    }
+
+    @Override
+    public BufferedLogger setLevel(LogLevel level) {
+        return this;
+    }
+
+    @Override
+    public void log(LogLevel level, String message) {
+        entries.add(new Entry(level, message));
+    }
+
+    @Override
+    public int count(LogLevel level) {
+        int count = 0;
+        for (var entry : entries) {
+            if (entry.level == level) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of messages of all levels
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public void flushTo(IDebugLogger logger) {
+        flushTo(logger, 0, entries.size());
+    }
+
+    /**
+     * Pass on messages in the given range of the logging order.
+     */
+    public void flushTo(IDebugLogger logger, int from, int to) {
+        for (int i = from; i < to; i++) {
+            var entry = entries.get(i);
+            logger.log(entry.level, entry.message);
+        }
+    }
+
+    private record Entry(LogLevel level, String message) {}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.logger.error.impl;
+
+import lib.twio.ITwioWriter;
+import tomic.logger.error.ErrorTypes;
+import tomic.logger.error.IErrorLogger;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps errors in the order they are logged, to be passed on to another
+ * logger later. Used where errors are produced on worker threads.
+ */
+public class BufferedErrorLogger implements IErrorLogger {
+    private final ArrayList<Entry> entries = new ArrayList<>();
+
+    @Override
+    public void log(int line, int column, ErrorTypes type, String message) {
+        entries.add(new Entry(line, column, type, message));
+    }
+
+    @Override
+    public void dumps(ITwioWriter writer) {
+        // Errors are only passed on with flushTo.
+    }
+
+    @Override
+    public int count() {
+        return entries.size();
+    }
+
+    public void flushTo(IErrorLogger logger) {
+        flushTo(logger, 0, entries.size());
+    }
+
+    /**
+     * Pass on errors in the given range of the logging order.
+     */
+    public void flushTo(IErrorLogger logger, int from, int to) {
+        for (int i = from; i < to; i++) {
+            var entry = entries.get(i);
+            logger.log(entry.line, entry.column, entry.type, entry.message);
+        }
+    }
+
+    private record Entry(int line, int column, ErrorTypes type, String message) {}
+}
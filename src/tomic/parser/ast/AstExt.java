@@ -18,6 +18,11 @@ public class AstExt {
     private AstExt() {}
 
     public static int countDirectChildNode(SyntaxNode node, SyntaxTypes type) {
+        var flat = node.getFlatTree();
+        if (flat != null) {
+            return flat.countChildren(node.flatIndex, type);
+        }
+
         int count = 0;
         for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
             if (child.is(type)) {
@@ -47,6 +52,12 @@ public class AstExt {
             return null;
         }
 
+        var flat = node.getFlatTree();
+        if (flat != null) {
+            int child = flat.findChild(node.flatIndex, type, index);
+            return (child < 0) ? null : flat.getNode(child);
+        }
+
         if (index > 0) {
             return frontGetDirectChildNode(node, type, index);
         } else {
@@ -82,6 +93,12 @@ public class AstExt {
 
     public static List<SyntaxNode> getDirectChildNodes(SyntaxNode node, SyntaxTypes type) {
         List<SyntaxNode> nodes = new ArrayList<>();
+        var flat = node.getFlatTree();
+        if (flat != null) {
+            flat.findChildren(node.flatIndex, type, nodes);
+            return nodes;
+        }
+
         for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
             if (child.is(type)) {
                 nodes.add(child);
@@ -90,8 +107,6 @@ public class AstExt {
         return nodes;
     }
 
-    private static int currentCount;
-
     public static SyntaxNode getChildNode(SyntaxNode node, SyntaxTypes type) {
         return getChildNode(node, type, 1);
     }
@@ -99,25 +114,31 @@ public class AstExt {
     public static SyntaxNode getChildNode(SyntaxNode node, SyntaxTypes type, int index) {
         assert index != 0;
 
-        currentCount = 0;
+        var flat = node.getFlatTree();
+        if (flat != null) {
+            int found = flat.findDescendant(node.flatIndex, type, index);
+            return (found < 0) ? null : flat.getNode(found);
+        }
+
+        // Matches so far, kept per call so that trees can be searched concurrently.
+        int[] count = { 0 };
         if (index > 0) {
-            return frontGetChildNode(node, type, index);
+            return frontGetChildNode(node, type, index, count);
         } else {
-            return rearGetChildNode(node, type, -index);
+            return rearGetChildNode(node, type, -index, count);
         }
     }
 
-    private static SyntaxNode frontGetChildNode(SyntaxNode node, SyntaxTypes type, int index) {
+    private static SyntaxNode frontGetChildNode(SyntaxNode node, SyntaxTypes type, int index, int[] count) {
         if (node.is(type)) {
-            currentCount++;
-            if (currentCount == index) {
+            if (++count[0] == index) {
                 return node;
             }
             return null;
         }
 
         for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
-            var result = frontGetChildNode(child, type, index);
+            var result = frontGetChildNode(child, type, index, count);
             if (result != null) {
                 return result;
             }
@@ -126,17 +147,16 @@ public class AstExt {
         return null;
     }
 
-    private static SyntaxNode rearGetChildNode(SyntaxNode node, SyntaxTypes type, int index) {
+    private static SyntaxNode rearGetChildNode(SyntaxNode node, SyntaxTypes type, int index, int[] count) {
         if (node.is(type)) {
-            currentCount++;
-            if (currentCount == index) {
+            if (++count[0] == index) {
                 return node;
             }
             return null;
         }
 
         for (var child = node.getLastChild(); child != null; child = child.getPrevSibling()) {
-            var result = rearGetChildNode(child, type, index);
+            var result = rearGetChildNode(child, type, index, count);
             if (result != null) {
                 return result;
             }
@@ -147,7 +167,7 @@ public class AstExt {
 
     public static List<SyntaxNode> getChildNodes(SyntaxNode node, SyntaxTypes type) {
         List<SyntaxNode> nodes = new ArrayList<>();
-        getChildNodes(node, type, nodes);
+        getChildNodes(node, nodes, type);
         return nodes;
     }
 
@@ -157,26 +177,33 @@ public class AstExt {
         return nodes;
     }
 
-    private static void getChildNodes(SyntaxNode node, SyntaxTypes type, List<SyntaxNode> nodes) {
-        if (node.is(type)) {
-            nodes.add(node);
-            return;
-        }
-
-        for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
-            getChildNodes(child, type, nodes);
-        }
-    }
-
+    // Matching nodes are not searched further. The visitor does not
+    // recurse, so deeply nested trees are fine.
     private static void getChildNodes(SyntaxNode node, List<SyntaxNode> nodes, SyntaxTypes... types) {
-        if (node.is(types)) {
-            nodes.add(node);
+        var flat = node.getFlatTree();
+        if (flat != null) {
+            flat.findDescendants(node.flatIndex, nodes, types);
             return;
         }
 
-        for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
-            getChildNodes(child, nodes, types);
-        }
+        node.accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                if (node.is(types)) {
+                    nodes.add(node);
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visit(SyntaxNode node) {
+                if (node.is(types)) {
+                    nodes.add(node);
+                }
+                return true;
+            }
+        });
     }
 
     public static boolean hasParent(SyntaxNode node, SyntaxTypes type) {
@@ -191,17 +218,7 @@ public class AstExt {
     }
 
     public static boolean hasAttribute(SyntaxNode node, String name) {
-        if (node.hasAttribute(name)) {
-            return true;
-        }
-
-        for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
-            if (hasAttribute(child, name)) {
-                return true;
-            }
-        }
-
-        return false;
+        return findSynthesizedAttributeOwner(node, name) != null;
     }
 
     public static boolean hasInheritedAttribute(SyntaxNode node, String name) {
@@ -260,6 +277,15 @@ public class AstExt {
         return defaultValue;
     }
 
+    public static int getInheritedIntAttribute(SyntaxNode node, SyntaxAttributes key, int defaultValue) {
+        for (var current = node; current != null; current = current.getParent()) {
+            if (current.hasAttribute(key)) {
+                return current.getIntAttribute(key, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     public static boolean getInheritedBoolAttribute(SyntaxNode node, String name) {
         return getInheritedBoolAttribute(node, name, false);
     }
@@ -334,18 +360,84 @@ public class AstExt {
         return defaultValue;
     }
 
-    private static boolean querySynthesizedAttribute(SyntaxNode node, String name, String[] value, String defaultValue) {
+    public static int getSynthesizedIntAttribute(SyntaxNode node, SyntaxAttributes key) {
+        var owner = findSynthesizedAttributeOwner(node, key);
+        return (owner == null) ? 0 : owner.getIntAttribute(key);
+    }
+
+    public static boolean getSynthesizedBoolAttribute(SyntaxNode node, SyntaxAttributes key) {
+        var owner = findSynthesizedAttributeOwner(node, key);
+        return (owner != null) && owner.getBoolAttribute(key);
+    }
+
+    /**
+     * Get the first array attribute found in the subtree.
+     * @return the array, or an empty one if not found
+     */
+    public static int[] getSynthesizedArrayAttribute(SyntaxNode node, String name) {
+        var owner = findSynthesizedAttributeOwner(node, name);
+        return (owner == null) ? new int[0] : owner.getArrayAttribute(name);
+    }
+
+    public static int[] getSynthesizedArrayAttribute(SyntaxNode node, SyntaxAttributes key) {
+        var owner = findSynthesizedAttributeOwner(node, key);
+        return (owner == null) ? new int[0] : owner.getArrayAttribute(key);
+    }
+
+    private static SyntaxNode findSynthesizedAttributeOwner(SyntaxNode node, SyntaxAttributes key) {
+        if (node.hasAttribute(key)) {
+            return node;
+        }
+
+        var flat = node.getFlatTree();
+        if (flat != null) {
+            int owner = flat.findAttributeOwner(node.flatIndex, key);
+            return (owner < 0) ? null : flat.getNode(owner);
+        }
+
+        for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            var owner = findSynthesizedAttributeOwner(child, key);
+            if (owner != null) {
+                return owner;
+            }
+        }
+
+        return null;
+    }
+
+    private static SyntaxNode findSynthesizedAttributeOwner(SyntaxNode node, String name) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return findSynthesizedAttributeOwner(node, key);
+        }
+
         if (node.hasAttribute(name)) {
-            value[0] = node.getAttribute(name, defaultValue);
-            return true;
+            return node;
+        }
+
+        var flat = node.getFlatTree();
+        if (flat != null) {
+            int owner = flat.findAttributeOwner(node.flatIndex, name);
+            return (owner < 0) ? null : flat.getNode(owner);
         }
 
         for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
-            if (querySynthesizedAttribute(child, name, value, defaultValue)) {
-                return true;
+            var owner = findSynthesizedAttributeOwner(child, name);
+            if (owner != null) {
+                return owner;
             }
         }
 
+        return null;
+    }
+
+    private static boolean querySynthesizedAttribute(SyntaxNode node, String name, String[] value, String defaultValue) {
+        var owner = findSynthesizedAttributeOwner(node, name);
+        if (owner != null) {
+            value[0] = owner.getAttribute(name, defaultValue);
+            return true;
+        }
+
         return false;
     }
 
@@ -388,6 +480,30 @@ public class AstExt {
         return builder.toString();
     }
 
+    public static String serializeArray(int[] array) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < array.length; i++) {
+            if (i != 0) {
+                builder.append(' ');
+            }
+            builder.append(array[i]);
+        }
+        return builder.toString();
+    }
+
+    public static int[] parseArray(String str) {
+        String trimmed = str.trim();
+        if (trimmed.isEmpty()) {
+            return new int[0];
+        }
+        String[] items = trimmed.split("\\s+");
+        int[] array = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            array[i] = Integer.parseInt(items[i]);
+        }
+        return array;
+    }
+
     public static ArrayList<Integer> deserializeArray(String str) {
         ArrayList<Integer> array = new ArrayList<>();
         Scanner scanner = new Scanner(str);
@@ -444,7 +560,7 @@ public class AstExt {
 
     // I hate Java. So clumsy.
     public static boolean tryEvaluate(SyntaxNode node, SymbolTableBlock block, int[] value) {
-        if (node.getIntAttribute("dim", -1) != 0) {
+        if (node.getIntAttribute(SyntaxAttributes.DIM, -1) != 0) {
             return false;
         }
 
@@ -464,13 +580,12 @@ public class AstExt {
             return false;
         }
 
-        int size = 1;
-        ArrayList<Integer> indices = new ArrayList<>();
+        int[] indices = new int[indexNodes.size()];
         for (int i = 0; i < indexNodes.size(); i++) {
-            if (!indexNodes.get(i).getBoolAttribute("det")) {
+            if (!indexNodes.get(i).getBoolAttribute(SyntaxAttributes.DET)) {
                 return false;
             }
-            indices.add(indexNodes.get(i).getIntAttribute("value"));
+            indices[i] = indexNodes.get(i).getIntAttribute(SyntaxAttributes.VALUE);
         }
 
         value[0] = entry.getValue(indices);
@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.parser.ast;
+
+import tomic.lexer.token.Token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Array view of a {@link SyntaxTree}, with nodes numbered in pre-order.
+ * The subtree of a node is the range from its index to its end, so
+ * searches in a subtree are plain scans over the arrays, with no
+ * recursion and no pointer chasing.
+ * <p>
+ * Children of each node are also listed in a child table, so the child
+ * count and the n-th child are array reads.
+ * <p>
+ * The original {@link SyntaxNode}s stay as the facade of each index, and
+ * hold the tokens and attributes, so the view only adds a node reference,
+ * a kind byte, an end index and two child table entries for each node.
+ * The view is dropped once the tree is modified.
+ */
+public class FlatSyntaxTree {
+    private static final SyntaxTypes[] TYPES = SyntaxTypes.values();
+
+    private final SyntaxNode[] nodes;
+    private final byte[] kinds;
+    // Index just past the subtree of each node.
+    private final int[] ends;
+    // Children of node i are children[childStarts[i]] to children[childStarts[i + 1] - 1].
+    private final int[] childStarts;
+    private final int[] children;
+
+    private FlatSyntaxTree(SyntaxNode root) {
+        var list = new ArrayList<SyntaxNode>();
+        var stack = new ArrayList<SyntaxNode>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            var node = stack.remove(stack.size() - 1);
+            list.add(node);
+            for (var child = node.getLastChild(); child != null; child = child.getPrevSibling()) {
+                stack.add(child);
+            }
+        }
+
+        int size = list.size();
+        nodes = list.toArray(new SyntaxNode[0]);
+        kinds = new byte[size];
+        ends = new int[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i].flatIndex = i;
+            kinds[i] = (byte) nodes[i].getType().ordinal();
+        }
+        // A subtree ends where the next sibling of its root, or of the
+        // nearest ancestor that has one, starts.
+        for (int i = size - 1; i >= 0; i--) {
+            var last = nodes[i].getLastChild();
+            ends[i] = (last == null) ? i + 1 : ends[last.flatIndex];
+        }
+
+        // Every node but the root is a child once.
+        childStarts = new int[size + 1];
+        children = new int[Math.max(size - 1, 0)];
+        int slot = 0;
+        for (int i = 0; i < size; i++) {
+            childStarts[i] = slot;
+            for (int child = i + 1; child < ends[i]; child = ends[child]) {
+                children[slot++] = child;
+            }
+        }
+        childStarts[size] = slot;
+    }
+
+    static FlatSyntaxTree of(SyntaxNode root) {
+        return new FlatSyntaxTree(root);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public int getRoot() {
+        return 0;
+    }
+
+    public SyntaxNode getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Get the index of a node in this view.
+     * @return -1 if the node is not in it
+     */
+    public int indexOf(SyntaxNode node) {
+        int index = node.flatIndex;
+        return (index >= 0 && index < nodes.length && nodes[index] == node) ? index : -1;
+    }
+
+    public SyntaxTypes getType(int index) {
+        return TYPES[kinds[index]];
+    }
+
+    /**
+     * @return index past the last node in the subtree
+     */
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    /**
+     * @return -1 for the root
+     */
+    public int getParent(int index) {
+        var parent = nodes[index].getParent();
+        return (parent == null) ? -1 : parent.flatIndex;
+    }
+
+    public int getChildCount(int index) {
+        return childStarts[index + 1] - childStarts[index];
+    }
+
+    /**
+     * Get the index of the n-th child.
+     * @return -1 if there is no such child
+     */
+    public int getChild(int index, int n) {
+        if (n < 0 || n >= getChildCount(index)) {
+            return -1;
+        }
+        return children[childStarts[index] + n];
+    }
+
+    public int getFirstChild(int index) {
+        return (index + 1 < ends[index]) ? index + 1 : -1;
+    }
+
+    /**
+     * @return -1 if it is the last child
+     */
+    public int getNextSibling(int index) {
+        int parent = getParent(index);
+        return (parent < 0 || ends[index] >= ends[parent]) ? -1 : ends[index];
+    }
+
+    public Token getToken(int index) {
+        return nodes[index].getToken();
+    }
+
+    /*
+     * ==================== Queries ====================
+     */
+
+    /**
+     * Count the direct children of the given type.
+     */
+    public int countChildren(int index, SyntaxTypes type) {
+        int count = 0;
+        for (int child = index + 1; child < ends[index]; child = ends[child]) {
+            if (kinds[child] == type.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find the n-th direct child of the given type, counting from the back
+     * if n is negative.
+     * @return -1 if there is no such child
+     */
+    public int findChild(int index, SyntaxTypes type, int n) {
+        if (n > 0) {
+            for (int child = index + 1; child < ends[index]; child = ends[child]) {
+                if (kinds[child] == type.ordinal() && --n == 0) {
+                    return child;
+                }
+            }
+            return -1;
+        }
+        int count = countChildren(index, type);
+        return (count + n < 0) ? -1 : findChild(index, type, count + n + 1);
+    }
+
+    public void findChildren(int index, SyntaxTypes type, List<SyntaxNode> result) {
+        for (int child = index + 1; child < ends[index]; child = ends[child]) {
+            if (kinds[child] == type.ordinal()) {
+                result.add(nodes[child]);
+            }
+        }
+    }
+
+    /**
+     * Find the n-th node of the given type in the subtree, counting from
+     * the back if n is negative. Nodes inside a match are not counted, as
+     * in {@link AstExt#getChildNode(SyntaxNode, SyntaxTypes, int)}.
+     * @return -1 if there is no such node
+     */
+    public int findDescendant(int index, SyntaxTypes type, int n) {
+        if (n > 0) {
+            for (int i = index; i < ends[index]; ) {
+                if (kinds[i] == type.ordinal()) {
+                    if (--n == 0) {
+                        return i;
+                    }
+                    i = ends[i];
+                } else {
+                    i++;
+                }
+            }
+            return -1;
+        }
+
+        // Matches do not overlap, so from the back they come in reverse.
+        int count = 0;
+        for (int i = index; i < ends[index]; i = (kinds[i] == type.ordinal()) ? ends[i] : i + 1) {
+            if (kinds[i] == type.ordinal()) {
+                count++;
+            }
+        }
+        return (count + n < 0) ? -1 : findDescendant(index, type, count + n + 1);
+    }
+
+    /**
+     * Find nodes of the given types in the subtree, nodes inside a match
+     * are not searched.
+     */
+    public void findDescendants(int index, List<SyntaxNode> result, SyntaxTypes... types) {
+        for (int i = index; i < ends[index]; ) {
+            if (nodes[i].is(types)) {
+                result.add(nodes[i]);
+                i = ends[i];
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Find the first node in the subtree, in pre-order, that has the given
+     * attribute.
+     * @return -1 if there is none
+     */
+    public int findAttributeOwner(int index, String name) {
+        for (int i = index; i < ends[index]; i++) {
+            if (nodes[i].hasAttribute(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int findAttributeOwner(int index, SyntaxAttributes key) {
+        for (int i = index; i < ends[index]; i++) {
+            if (nodes[i].hasAttribute(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Walk the tree with an explicit stack, in the same order and with the
+     * same early exit as {@link SyntaxNode#accept(IAstVisitor)}.
+     */
+    public boolean accept(IAstVisitor visitor) {
+        if (!nodes[0].isNonTerminal()) {
+            return visitor.visit(nodes[0]);
+        }
+
+        int[] stack = new int[16];
+        // Index of the next child to visit in each frame.
+        int[] cursors = new int[16];
+        int top = 0;
+        stack[0] = 0;
+        cursors[0] = visitor.visitEnter(nodes[0]) ? 1 : ends[0];
+
+        while (true) {
+            int index = stack[top];
+            int child = cursors[top];
+            if (child < ends[index]) {
+                cursors[top] = ends[child];
+                if (nodes[child].isNonTerminal()) {
+                    if (++top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                        cursors = Arrays.copyOf(cursors, top * 2);
+                    }
+                    stack[top] = child;
+                    cursors[top] = visitor.visitEnter(nodes[child]) ? child + 1 : ends[child];
+                } else if (!visitor.visit(nodes[child])) {
+                    cursors[top] = ends[index];
+                }
+            } else {
+                boolean ret = visitor.visitExit(nodes[index]);
+                if (top == 0) {
+                    return ret;
+                }
+                top--;
+                if (!ret) {
+                    cursors[top] = ends[stack[top]];
+                }
+            }
+        }
+    }
+}
@@ -6,20 +6,49 @@
 
 package tomic.parser.ast;
 
+import java.util.Arrays;
+
 public class NonTerminalSyntaxNode extends SyntaxNode {
     NonTerminalSyntaxNode(SyntaxTypes type) {
         super(SyntaxNodeTypes.NON_TERMINAL, type);
     }
 
+    /**
+     * Walk the subtree with an explicit stack, so that deep trees do not
+     * overflow the call stack. The order is the same as the recursive one:
+     * children are skipped if visitEnter returns false, the remaining
+     * siblings are skipped if a child returns false, and visitExit is
+     * always called. The next sibling is read after a child is done, so
+     * visitors may still modify the children of the node they exit.
+     */
     @Override
     public boolean accept(IAstVisitor visitor) {
-        if (visitor.visitEnter(this)) {
-            for (var node = getFirstChild(); node != null; node = node.getNextSibling()) {
-                if (!node.accept(visitor)) {
-                    break;
+        SyntaxNode[] nodes = new SyntaxNode[16];
+        // Next child to visit of each node on the stack.
+        SyntaxNode[] nexts = new SyntaxNode[16];
+        int top = 0;
+        nodes[0] = this;
+        nexts[0] = visitor.visitEnter(this) ? getFirstChild() : null;
+
+        while (true) {
+            var child = nexts[top];
+            if (child == null) {
+                boolean ret = visitor.visitExit(nodes[top]);
+                if (top == 0) {
+                    return ret;
+                }
+                var node = nodes[top--];
+                nexts[top] = ret ? node.getNextSibling() : null;
+            } else if (child.isNonTerminal()) {
+                if (++top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    nexts = Arrays.copyOf(nexts, top * 2);
                 }
+                nodes[top] = child;
+                nexts[top] = visitor.visitEnter(child) ? child.getFirstChild() : null;
+            } else {
+                nexts[top] = child.accept(visitor) ? child.getNextSibling() : null;
             }
         }
-        return visitor.visitExit(this);
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.parser.ast;
+
+/**
+ * Attributes that are known ahead, each has a dedicated slot in
+ * {@link SyntaxNode}. Other attributes fall back to a map.
+ */
+public enum SyntaxAttributes {
+    TYPE("type"),
+    VALUE("value"),
+    DIM("dim"),
+    DET("det"),
+    CONST("const"),
+    SIZE("size"),
+    SIZES("sizes"),
+    TBL("tbl"),
+    NAME("name"),
+    OP("op"),
+    BAD("bad"),
+    ARGC("argc"),
+    GLOBAL("global"),
+    LOOP("loop");
+
+    private static final SyntaxAttributes[] VALUES = values();
+
+    private final String key;
+
+    SyntaxAttributes(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static SyntaxAttributes at(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Get the known attribute of the given name.
+     * @return null if it is not a known one
+     */
+    public static SyntaxAttributes of(String key) {
+        return switch (key) {
+            case "type" -> TYPE;
+            case "value" -> VALUE;
+            case "dim" -> DIM;
+            case "det" -> DET;
+            case "const" -> CONST;
+            case "size" -> SIZE;
+            case "sizes" -> SIZES;
+            case "tbl" -> TBL;
+            case "name" -> NAME;
+            case "op" -> OP;
+            case "bad" -> BAD;
+            case "argc" -> ARGC;
+            case "global" -> GLOBAL;
+            case "loop" -> LOOP;
+            default -> null;
+        };
+    }
+}
@@ -19,10 +19,20 @@ public abstract class SyntaxNode {
     protected SyntaxNode next;
     protected SyntaxNode firstChild;
     protected SyntaxNode lastChild;
+    // Index in the flat view of the tree, if any.
+    int flatIndex = -1;
     //// AST properties
     protected SyntaxTypes type;
     protected Token token;
-    protected final Map<String, String> attributes = new HashMap<>();
+    //// AST attributes
+    // Known attributes are kept in typed slots, bits are indexed by ordinal.
+    private int attributeMask;
+    private int intMask;
+    private int boolMask;
+    private int[] intSlots;
+    private Object[] refSlots;
+    // Other attributes, created on first use.
+    private Map<String, String> attributes;
     ///// Type identification
     private final SyntaxNodeTypes nodeType;
 
@@ -102,6 +112,11 @@ public abstract class SyntaxNode {
     }
 
     public SyntaxNode childAt(int index) {
+        var flat = getFlatTree();
+        if (flat != null) {
+            int child = flat.getChild(flatIndex, index);
+            return (child < 0) ? null : flat.getNode(child);
+        }
         SyntaxNode node = firstChild;
         while (index > 0 && node != null) {
             node = node.next;
@@ -110,6 +125,18 @@ public abstract class SyntaxNode {
         return node;
     }
 
+    public int getChildCount() {
+        var flat = getFlatTree();
+        if (flat != null) {
+            return flat.getChildCount(flatIndex);
+        }
+        int count = 0;
+        for (var node = firstChild; node != null; node = node.next) {
+            count++;
+        }
+        return count;
+    }
+
     public abstract boolean accept(IAstVisitor visitor);
 
     /*
@@ -187,6 +214,10 @@ public abstract class SyntaxNode {
         assert child != null;
         assert tree == child.tree;
 
+        if (tree != null) {
+            tree.dropFlatTree();
+        }
+
         if (child.parent != null) {
             child.parent.unlink(child);
         }
@@ -197,6 +228,10 @@ public abstract class SyntaxNode {
         assert tree == child.tree;
         assert child.parent == this;
 
+        if (tree != null) {
+            tree.dropFlatTree();
+        }
+
         if (child == firstChild) {
             firstChild = child.next;
         }
@@ -220,7 +255,15 @@ public abstract class SyntaxNode {
      * ==================== AST Attributes ====================
      */
     public boolean hasAttribute(String name) {
-        return attributes.containsKey(name);
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return hasAttribute(key);
+        }
+        return attributes != null && attributes.containsKey(name);
+    }
+
+    public boolean hasAttribute(SyntaxAttributes key) {
+        return (attributeMask & bit(key)) != 0;
     }
 
     public String getAttribute(String name) {
@@ -228,7 +271,33 @@ public abstract class SyntaxNode {
     }
 
     public String getAttribute(String name, String defaultValue) {
-        return attributes.getOrDefault(name, defaultValue);
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return getAttribute(key, defaultValue);
+        }
+        return (attributes == null) ? defaultValue : attributes.getOrDefault(name, defaultValue);
+    }
+
+    public String getAttribute(SyntaxAttributes key) {
+        return getAttribute(key, null);
+    }
+
+    public String getAttribute(SyntaxAttributes key, String defaultValue) {
+        int bit = bit(key);
+        if ((attributeMask & bit) == 0) {
+            return defaultValue;
+        }
+        if ((intMask & bit) != 0) {
+            return String.valueOf(intSlots[key.ordinal()]);
+        }
+        if ((boolMask & bit) != 0) {
+            return String.valueOf(intSlots[key.ordinal()] != 0);
+        }
+        var value = refSlots[key.ordinal()];
+        if (value instanceof int[] array) {
+            return AstExt.serializeArray(array);
+        }
+        return (String) value;
     }
 
     public int getIntAttribute(String name) {
@@ -236,6 +305,10 @@ public abstract class SyntaxNode {
     }
 
     public int getIntAttribute(String name, int defaultValue) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return getIntAttribute(key, defaultValue);
+        }
         String attr = getAttribute(name, null);
         if (attr == null) {
             return defaultValue;
@@ -243,11 +316,30 @@ public abstract class SyntaxNode {
         return Integer.parseInt(attr);
     }
 
+    public int getIntAttribute(SyntaxAttributes key) {
+        return getIntAttribute(key, 0);
+    }
+
+    public int getIntAttribute(SyntaxAttributes key, int defaultValue) {
+        if ((intMask & bit(key)) != 0) {
+            return intSlots[key.ordinal()];
+        }
+        String attr = getAttribute(key, null);
+        if (attr == null) {
+            return defaultValue;
+        }
+        return Integer.parseInt(attr);
+    }
+
     public boolean getBoolAttribute(String name) {
         return getBoolAttribute(name, false);
     }
 
     public boolean getBoolAttribute(String name, boolean defaultValue) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return getBoolAttribute(key, defaultValue);
+        }
         String attr = getAttribute(name, null);
         if (attr == null) {
             return defaultValue;
@@ -255,28 +347,189 @@ public abstract class SyntaxNode {
         return Boolean.parseBoolean(attr);
     }
 
+    public boolean getBoolAttribute(SyntaxAttributes key) {
+        return getBoolAttribute(key, false);
+    }
+
+    public boolean getBoolAttribute(SyntaxAttributes key, boolean defaultValue) {
+        if ((boolMask & bit(key)) != 0) {
+            return intSlots[key.ordinal()] != 0;
+        }
+        String attr = getAttribute(key, null);
+        if (attr == null) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(attr);
+    }
+
+    public int[] getArrayAttribute(String name) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return getArrayAttribute(key);
+        }
+        return AstExt.parseArray(getAttribute(name, ""));
+    }
+
+    /**
+     * Get an array attribute, the result should not be modified.
+     * A single int is taken as an array of one element, and a missing
+     * attribute as an empty array.
+     */
+    public int[] getArrayAttribute(SyntaxAttributes key) {
+        int bit = bit(key);
+        if ((attributeMask & bit) == 0) {
+            return EMPTY_ARRAY;
+        }
+        if ((intMask & bit) != 0) {
+            return new int[]{ intSlots[key.ordinal()] };
+        }
+        if (refSlots[key.ordinal()] instanceof int[] array) {
+            return array;
+        }
+        return AstExt.parseArray(getAttribute(key, ""));
+    }
+
+    /**
+     * Get a snapshot of all attributes as strings, mainly for printing.
+     */
     public Map<String, String> getAttributes() {
-        return attributes;
+        Map<String, String> all = (attributes == null) ? new HashMap<>() : new HashMap<>(attributes);
+        for (int mask = attributeMask; mask != 0; mask &= mask - 1) {
+            var key = SyntaxAttributes.at(Integer.numberOfTrailingZeros(mask));
+            all.put(key.key(), getAttribute(key, null));
+        }
+        return all;
     }
 
     public SyntaxNode setAttribute(String name, String value) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return setAttribute(key, value);
+        }
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
         attributes.put(name, value);
         return this;
     }
 
+    public SyntaxNode setAttribute(SyntaxAttributes key, String value) {
+        if (refSlots == null) {
+            refSlots = new Object[SLOT_COUNT];
+        }
+        refSlots[key.ordinal()] = value;
+        int bit = bit(key);
+        attributeMask |= bit;
+        intMask &= ~bit;
+        boolMask &= ~bit;
+        return this;
+    }
+
+    public SyntaxNode setArrayAttribute(String name, int[] value) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return setArrayAttribute(key, value);
+        }
+        return setAttribute(name, AstExt.serializeArray(value));
+    }
+
+    /**
+     * Set an array attribute, the array is kept without copy.
+     */
+    public SyntaxNode setArrayAttribute(SyntaxAttributes key, int[] value) {
+        if (refSlots == null) {
+            refSlots = new Object[SLOT_COUNT];
+        }
+        refSlots[key.ordinal()] = value;
+        int bit = bit(key);
+        attributeMask |= bit;
+        intMask &= ~bit;
+        boolMask &= ~bit;
+        return this;
+    }
+
     public SyntaxNode setIntAttribute(String name, int value) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return setIntAttribute(key, value);
+        }
         return setAttribute(name, String.valueOf(value));
     }
 
+    public SyntaxNode setIntAttribute(SyntaxAttributes key, int value) {
+        setIntSlot(key, value);
+        intMask |= bit(key);
+        return this;
+    }
+
     public SyntaxNode setBoolAttribute(String name, boolean value) {
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return setBoolAttribute(key, value);
+        }
         return setAttribute(name, String.valueOf(value));
     }
 
+    public SyntaxNode setBoolAttribute(SyntaxAttributes key, boolean value) {
+        setIntSlot(key, value ? 1 : 0);
+        boolMask |= bit(key);
+        return this;
+    }
+
     public SyntaxNode removeAttribute(String name) {
-        attributes.remove(name);
+        var key = SyntaxAttributes.of(name);
+        if (key != null) {
+            return removeAttribute(key);
+        }
+        if (attributes != null) {
+            attributes.remove(name);
+        }
+        return this;
+    }
+
+    public SyntaxNode removeAttribute(SyntaxAttributes key) {
+        int bit = bit(key);
+        attributeMask &= ~bit;
+        intMask &= ~bit;
+        boolMask &= ~bit;
+        if (refSlots != null) {
+            refSlots[key.ordinal()] = null;
+        }
         return this;
     }
 
+    /**
+     * Get the flat view this node is in, if it is still valid.
+     */
+    FlatSyntaxTree getFlatTree() {
+        if (flatIndex < 0 || tree == null) {
+            return null;
+        }
+        var flat = tree.getFlatTree();
+        return (flat != null && flat.indexOf(this) == flatIndex) ? flat : null;
+    }
+
+    private static final int SLOT_COUNT = SyntaxAttributes.values().length;
+    private static final int[] EMPTY_ARRAY = new int[0];
+
+    private static int bit(SyntaxAttributes key) {
+        return 1 << key.ordinal();
+    }
+
+    private void setIntSlot(SyntaxAttributes key, int value) {
+        if (intSlots == null) {
+            intSlots = new int[SLOT_COUNT];
+        }
+        intSlots[key.ordinal()] = value;
+        int bit = bit(key);
+        attributeMask |= bit;
+        intMask &= ~bit;
+        boolMask &= ~bit;
+        if (refSlots != null) {
+            refSlots[key.ordinal()] = null;
+        }
+    }
+
     public enum SyntaxNodeTypes {
         NON_TERMINAL,
         TERMINAL,
@@ -10,6 +10,7 @@ import tomic.lexer.token.Token;
 
 public class SyntaxTree {
     private SyntaxNode root;
+    private FlatSyntaxTree flat;
 
     public SyntaxNode newTerminalNode(Token token) {
         var node = new TerminalSyntaxNode(token);
@@ -36,6 +37,7 @@ public class SyntaxTree {
 
         if (node == root) {
             root = null;
+            flat = null;
         }
 
         if (node.parent != null) {
@@ -49,9 +51,36 @@ public class SyntaxTree {
 
     public void setRoot(SyntaxNode root) {
         this.root = root;
+        flat = null;
+    }
+
+    /**
+     * Build the flat view of the tree, which is kept until the tree is
+     * modified. Traversal and the searches in {@link AstExt} then go
+     * through it.
+     */
+    public FlatSyntaxTree flatten() {
+        if (flat == null && root != null) {
+            flat = FlatSyntaxTree.of(root);
+        }
+        return flat;
+    }
+
+    /**
+     * @return null if the tree is not flattened, or modified since then
+     */
+    public FlatSyntaxTree getFlatTree() {
+        return flat;
+    }
+
+    void dropFlatTree() {
+        flat = null;
     }
 
     public boolean accept(IAstVisitor visitor) {
+        if (flat != null) {
+            return flat.accept(visitor);
+        }
         return root.accept(visitor);
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.parser.ast.trans;
+
+import tomic.parser.ast.IAstVisitor;
+import tomic.parser.ast.SyntaxNode;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.SyntaxTypes;
+
+/**
+ * Remove expression nodes that only pass their single child through, so
+ * that a literal is Exp -> PrimaryExp -> Number instead of going through
+ * every precedence level.
+ * <p>
+ * Exp, Cond, ConstExp and PrimaryExp are kept, as they carry meaning of
+ * their own. The result is no longer in the complete grammar form, so it
+ * should not be printed.
+ */
+public class ExpressionChainTransformer implements IAstTransformer, IAstVisitor {
+    private int removed;
+
+    @Override
+    public SyntaxTree transform(SyntaxTree tree) {
+        removed = 0;
+        tree.accept(this);
+        return tree;
+    }
+
+    /**
+     * @return number of nodes removed by the last transform
+     */
+    public int getRemovedCount() {
+        return removed;
+    }
+
+    /**
+     * Children are already compacted when their parent exits, and the
+     * parent is the one to relink them.
+     */
+    @Override
+    public boolean visitExit(SyntaxNode node) {
+        var child = node.getFirstChild();
+        while (child != null) {
+            if (isPassThrough(child)) {
+                var grandChild = child.getFirstChild();
+                node.insertAfterChild(grandChild, child);
+                node.removeChild(child);
+                removed++;
+                child = grandChild;
+            } else {
+                child = child.getNextSibling();
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPassThrough(SyntaxNode node) {
+        if (!node.hasOnlyOneChild()) {
+            return false;
+        }
+        return switch (node.getType()) {
+            case OR_EXP, AND_EXP, EQ_EXP, REL_EXP, ADD_EXP, MUL_EXP -> true;
+            case UNARY_EXP -> node.getFirstChild().is(SyntaxTypes.PRIMARY_EXP, SyntaxTypes.FUNC_CALL);
+            default -> false;
+        };
+    }
+}
@@ -15,10 +15,10 @@ import tomic.parser.ISemanticAnalyzer;
 import tomic.parser.ast.*;
 import tomic.parser.table.*;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Stack;
+import java.util.function.Function;
 
 public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     private final IErrorLogger errorLogger;
@@ -26,27 +26,122 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private SymbolTable table;
     private SymbolTableBlock currentBlock;
+    // Visible entries of currentBlock, for lookups during the analysis.
+    private ScopedSymbolTable scope;
     private final Stack<SyntaxNode> nodeStack;
+    private final Stack<ScopeFrame> frameStack;
     private SyntaxNode errorCandidate;
 
+    // Set to analyze function bodies later, see ParallelSemanticAnalyzer.
+    private BodyCollector bodyCollector;
+    // Order of global entries, only kept with bodyCollector.
+    private Map<SymbolTableEntry, Integer> globalOrder;
+    // Next reserved block id, or -1 to allocate new ones.
+    private int nextBlockId = -1;
+
+    /**
+     * Receives function bodies skipped in the analysis.
+     */
+    interface BodyCollector {
+        /**
+         * @param funcDef FuncDef or MainFuncDef of the body
+         * @param type    return type of the function
+         * @param visible number of global entries visible to the body
+         */
+        void collect(SyntaxNode funcDef, SymbolValueTypes type, int visible);
+    }
+
+    /**
+     * Inherited context of the current node, so that it needs no walk up
+     * the tree. A new frame copies the enclosing one.
+     */
+    private static class ScopeFrame {
+        // Declared type, or return type in a function.
+        SymbolValueTypes type;
+        boolean loop;
+
+        ScopeFrame(ScopeFrame outer) {
+            if (outer != null) {
+                type = outer.type;
+                loop = outer.loop;
+            } else {
+                type = SymbolValueTypes.values()[0];
+                loop = false;
+            }
+        }
+    }
+
     public DefaultSemanticAnalyzer(IErrorLogger errorLogger, IDebugLogger debugLogger) {
         this.errorLogger = errorLogger;
         this.debugLogger = debugLogger;
         nodeStack = new Stack<>();
+        frameStack = new Stack<>();
     }
 
     @Override
     public SymbolTable analyze(SyntaxTree tree) {
         table = new SymbolTable();
+        scope = new ScopedSymbolTable();
         nodeStack.clear();
         nodeStack.push(tree.getRoot());
+        frameStack.clear();
+        frameStack.push(new ScopeFrame(null));
         tree.accept(this);
         return table;
     }
 
+    /**
+     * Analyze globals and function signatures only. Function bodies are
+     * passed to the collector instead, to be analyzed by
+     * {@link #analyzeBody}.
+     *
+     * @param globalOrder receives the order of global entries
+     */
+    SymbolTable analyzeGlobals(SyntaxTree tree, BodyCollector collector, Map<SymbolTableEntry, Integer> globalOrder) {
+        bodyCollector = collector;
+        this.globalOrder = globalOrder;
+        try {
+            return analyze(tree);
+        } finally {
+            bodyCollector = null;
+            this.globalOrder = null;
+        }
+    }
+
+    /**
+     * Analyze a function body skipped by {@link #analyzeGlobals}.
+     *
+     * @param global      root block of the table
+     * @param outer       lookup of global entries visible to the body
+     * @param firstBlock  first of the block ids reserved for the body
+     */
+    void analyzeBody(SymbolTable table, SymbolTableBlock global, Function<String, SymbolTableEntry> outer,
+                     SyntaxNode funcDef, SymbolValueTypes type, int firstBlock) {
+        this.table = table;
+        currentBlock = global;
+        scope = new ScopedSymbolTable(outer);
+        nextBlockId = firstBlock;
+        nodeStack.clear();
+        nodeStack.push(funcDef);
+        frameStack.clear();
+        frameStack.push(new ScopeFrame(null));
+        frameStack.peek().type = type;
+
+        funcDef.getLastChild().accept(this);
+        if (funcDef.is(SyntaxTypes.FUNC_DEF)) {
+            exitFuncDef(funcDef);
+        } else {
+            exitMainFuncDef(funcDef);
+        }
+        nextBlockId = -1;
+    }
+
     @Override
     public boolean visitEnter(SyntaxNode node) {
         nodeStack.push(node);
+        if (isScope(node)) {
+            frameStack.push(new ScopeFrame(frameStack.peek()));
+        }
 
         return switch (node.getType()) {
             case COMP_UNIT -> enterCompUnit(node);
@@ -62,6 +157,14 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     @Override
     public boolean visitExit(SyntaxNode node) {
+        if (bodyCollector != null && isDeferred(node)) {
+            nodeStack.pop();
+            if (isScope(node)) {
+                frameStack.pop();
+            }
+            return true;
+        }
+
         boolean ret = switch (node.getType()) {
             case COMP_UNIT -> exitCompUnit(node);
             case BTYPE -> exitBType(node);
@@ -98,6 +201,9 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
             default -> true;
         };
         nodeStack.pop();
+        if (isScope(node)) {
+            frameStack.pop();
+        }
 
         return ret;
     }
@@ -110,19 +216,47 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     /*
      * ===================== Utility Functions =============================
      */
+
+    /**
+     * Nodes that open a new frame of inherited context.
+     */
+    private static boolean isScope(SyntaxNode node) {
+        return switch (node.getType()) {
+            case CONST_DECL, VAR_DECL, FUNC_DEF, FUNC_FPARAM, MAIN_FUNC_DEF, FOR_STMT -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Function bodies, and the functions themselves, are done later with
+     * a body collector.
+     */
+    private static boolean isDeferred(SyntaxNode node) {
+        return switch (node.getType()) {
+            case FUNC_DEF, MAIN_FUNC_DEF -> true;
+            case BLOCK -> node.getParent().is(SyntaxTypes.FUNC_DEF) || node.getParent().is(SyntaxTypes.MAIN_FUNC_DEF);
+            default -> false;
+        };
+    }
+
     private SymbolTableBlock getOrCreateBlock(SyntaxNode node) {
-        int blockId = node.getIntAttribute("tbl", -1);
+        scope.enterScope();
+
+        int blockId = node.getIntAttribute(SyntaxAttributes.TBL, -1);
         if (blockId != -1) {
             return table.getBlock(blockId);
         }
 
         SymbolTableBlock block;
-        if (currentBlock != null) {
+        if (nextBlockId >= 0) {
+            block = table.newBlock(currentBlock, nextBlockId++);
+            node.setIntAttribute(SyntaxAttributes.TBL, block.getId());
+        } else if (currentBlock != null) {
             block = currentBlock.newChild();
-            node.setIntAttribute("tbl", block.getId());
+            node.setIntAttribute(SyntaxAttributes.TBL, block.getId());
         } else {
             block = table.newRoot();
-            node.setIntAttribute("tbl", block.getId());
+            node.setIntAttribute(SyntaxAttributes.TBL, block.getId());
         }
 
         currentBlock = block;
@@ -130,30 +264,38 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         return block;
     }
 
-    private boolean addToSymbolTable(SymbolTableEntry entry) {
-        if (currentBlock.findLocalEntry(entry.getName()) != null) {
+    /**
+     * @param ident identifier terminal that names the entry
+     */
+    private boolean addToSymbolTable(SymbolTableEntry entry, SyntaxNode ident) {
+        int id = ident.getToken().id;
+        if (scope.findLocalEntry(entry.getName(), id) != null) {
             log(LogLevel.ERROR, "Redefinition of " + entry.getName());
             logError(ErrorTypes.REDEFINED_SYMBOL, "Redefined symbol " + entry.getName());
             return false;
         }
+        if (globalOrder != null && currentBlock.getParent() == null) {
+            globalOrder.put(entry, globalOrder.size());
+        }
         currentBlock.addEntry(entry);
+        scope.addEntry(entry, id);
         return true;
     }
 
     private int validateConstSubscription(SyntaxNode constExp) {
-        if (!constExp.getBoolAttribute("det")) {
+        if (!constExp.getBoolAttribute(SyntaxAttributes.DET)) {
             log(LogLevel.ERROR, "Non-constant subscription");
             logError(ErrorTypes.UNKNOWN, "Non-constant subscription");
             return 0;
         }
 
-        SymbolValueTypes type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(constExp, "type")];
+        SymbolValueTypes type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(constExp, SyntaxAttributes.TYPE)];
         if (type != SymbolValueTypes.INT) {
             log(LogLevel.ERROR, "Non-integer subscription");
             logError(ErrorTypes.UNKNOWN, "Non-integer subscription");
         }
 
-        int size = constExp.getIntAttribute("value");
+        int size = constExp.getIntAttribute(SyntaxAttributes.VALUE);
         if (size < 0) {
             log(LogLevel.ERROR, "Negative subscription");
             logError(ErrorTypes.UNKNOWN, "Negative subscription");
@@ -164,13 +306,36 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private void validateSubscription(SyntaxNode node) {
-        SymbolValueTypes type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, "type")];
+        SymbolValueTypes type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, SyntaxAttributes.TYPE)];
         if (type != SymbolValueTypes.INT) {
             log(LogLevel.ERROR, "Non-integer subscription");
             logError(ErrorTypes.UNKNOWN, "Non-integer subscription");
         }
     }
 
+    /**
+     * Concatenate the folded values of child initializers in order.
+     */
+    private static int[] concatValues(List<SyntaxNode> children) {
+        int length = 0;
+        for (var child : children) {
+            length += (child.getIntAttribute(SyntaxAttributes.DIM) == 0) ? 1 : child.getArrayAttribute(SyntaxAttributes.VALUE).length;
+        }
+
+        int[] values = new int[length];
+        int offset = 0;
+        for (var child : children) {
+            if (child.getIntAttribute(SyntaxAttributes.DIM) == 0) {
+                values[offset++] = child.getIntAttribute(SyntaxAttributes.VALUE);
+            } else {
+                int[] childValues = child.getArrayAttribute(SyntaxAttributes.VALUE);
+                System.arraycopy(childValues, 0, values, offset, childValues.length);
+                offset += childValues.length;
+            }
+        }
+        return values;
+    }
+
     /*
      * ===================== Logging =============================
      */
@@ -201,6 +366,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private boolean exitCompUnit(SyntaxNode node) {
         currentBlock = currentBlock.getParent();
+        scope.exitScope();
         return true;
     }
 
@@ -208,7 +374,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         var parent = node.getParent();
 
         if (parent.is(SyntaxTypes.COMP_UNIT)) {
-            node.setBoolAttribute("global", true);
+            node.setBoolAttribute(SyntaxAttributes.GLOBAL, true);
         }
 
         return true;
@@ -216,13 +382,14 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private boolean exitBType(SyntaxNode node) {
         SymbolValueTypes type = SymbolValueTypes.INT;
-        node.setIntAttribute("type", type.ordinal());
-        node.getParent().setIntAttribute("type", type.ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+        node.getParent().setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+        frameStack.peek().type = type;
         return true;
     }
 
     private boolean enterConstDecl(SyntaxNode node) {
-        node.setBoolAttribute("const", true);
+        node.setBoolAttribute(SyntaxAttributes.CONST, true);
         return true;
     }
 
@@ -231,7 +398,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         SyntaxNode constInitVal = AstExt.getChildNode(node, SyntaxTypes.CONST_INIT_VAL);
         SyntaxNode ident = AstExt.getDirectChildNode(node, SyntaxTypes.TERMINATOR);
         var builder = ConstantEntry.builder(ident.getToken().lexeme);
-        var type = SymbolValueTypes.values()[AstExt.getInheritedIntAttribute(node, "type")];
+        var type = frameStack.peek().type;
 
         var dimNodes = AstExt.getDirectChildNodes(node, SyntaxTypes.CONST_EXP);
         for (int i = 0; i < dim; i++) {
@@ -239,67 +406,63 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
             builder.addDimension(size);
         }
 
-        if (constInitVal.getBoolAttribute("det")) {
-            builder.setValues(AstExt.deserializeArray(constInitVal.getAttribute("value")));
+        if (constInitVal.getBoolAttribute(SyntaxAttributes.DET)) {
+            builder.setValues(constInitVal.getArrayAttribute(SyntaxAttributes.VALUE));
         } else {
             log(LogLevel.ERROR, "Non-deterministic constant initialization");
             logError(ErrorTypes.UNKNOWN, "Non-deterministic constant initialization");
         }
 
-        if (dim != constInitVal.getIntAttribute("dim")) {
-            log(LogLevel.ERROR, String.format("Dimension mismatch: %d != %d", dim, constInitVal.getIntAttribute("dim")));
-            logError(ErrorTypes.UNKNOWN, String.format("Dimension mismatch: %d != %d", dim, constInitVal.getIntAttribute("dim")));
+        if (dim != constInitVal.getIntAttribute(SyntaxAttributes.DIM)) {
+            log(LogLevel.ERROR, String.format("Dimension mismatch: %d != %d", dim, constInitVal.getIntAttribute(SyntaxAttributes.DIM)));
+            logError(ErrorTypes.UNKNOWN, String.format("Dimension mismatch: %d != %d", dim, constInitVal.getIntAttribute(SyntaxAttributes.DIM)));
             return true;
         }
 
-        node.setIntAttribute("dim", dim);
-        addToSymbolTable(builder.build());
+        node.setIntAttribute(SyntaxAttributes.DIM, dim);
+        addToSymbolTable(builder.build(), ident);
 
         return true;
     }
 
     private boolean exitConstInitVal(SyntaxNode node) {
         if (node.getFirstChild().is(SyntaxTypes.CONST_EXP)) {
-            node.setIntAttribute("dim", 0);
-            if (node.getFirstChild().getBoolAttribute("det")) {
-                node.setBoolAttribute("det", true);
-                node.setIntAttribute("value", node.getFirstChild().getIntAttribute("value"));
+            node.setIntAttribute(SyntaxAttributes.DIM, 0);
+            if (node.getFirstChild().getBoolAttribute(SyntaxAttributes.DET)) {
+                node.setBoolAttribute(SyntaxAttributes.DET, true);
+                node.setIntAttribute(SyntaxAttributes.VALUE, node.getFirstChild().getIntAttribute(SyntaxAttributes.VALUE));
             }
             return true;
         }
 
         List<SyntaxNode> children = AstExt.getDirectChildNodes(node, SyntaxTypes.CONST_INIT_VAL);
         int size = children.size();
-        int childDim = children.get(0).getIntAttribute("dim");
-        int childSize = children.get(0).getIntAttribute("size");
+        int childDim = children.get(0).getIntAttribute(SyntaxAttributes.DIM);
+        int childSize = children.get(0).getIntAttribute(SyntaxAttributes.SIZE);
         boolean det = true;
 
         for (var child : children) {
-            if (child.getIntAttribute("dim") != childDim) {
+            if (child.getIntAttribute(SyntaxAttributes.DIM) != childDim) {
                 log(LogLevel.ERROR, "Dimension mismatch");
                 logError(ErrorTypes.UNKNOWN, "Dimension mismatch");
             }
-            if (child.getIntAttribute("size") != childSize) {
+            if (child.getIntAttribute(SyntaxAttributes.SIZE) != childSize) {
                 log(LogLevel.ERROR, "Size mismatch");
                 logError(ErrorTypes.UNKNOWN, "Size mismatch");
             }
-            if (!child.getBoolAttribute("det")) {
+            if (!child.getBoolAttribute(SyntaxAttributes.DET)) {
                 det = false;
             }
         }
 
         int dim = childDim + 1;
-        node.setIntAttribute("dim", dim);
-        node.setIntAttribute("size", size);
-        ArrayList<Integer> values = new ArrayList<>();
+        node.setIntAttribute(SyntaxAttributes.DIM, dim);
+        node.setIntAttribute(SyntaxAttributes.SIZE, size);
         if (det) {
-            node.setBoolAttribute("det", true);
-            for (var child : children) {
-                values.addAll(AstExt.deserializeArray(child.getAttribute("value")));
-            }
-            node.setAttribute("value", AstExt.serializeArray(values));
+            node.setBoolAttribute(SyntaxAttributes.DET, true);
+            node.setArrayAttribute(SyntaxAttributes.VALUE, concatValues(children));
         } else {
-            node.setBoolAttribute("det", false);
+            node.setBoolAttribute(SyntaxAttributes.DET, false);
             log(LogLevel.ERROR, "Non-deterministic constant initialization");
             logError(ErrorTypes.UNKNOWN, "Non-deterministic constant initialization");
         }
@@ -309,10 +472,10 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private boolean exitVarDef(SyntaxNode node) {
         var initVal = AstExt.getChildNode(node, SyntaxTypes.INIT_VAL);
-        boolean global = node.getBoolAttribute("global");
+        boolean global = node.getBoolAttribute(SyntaxAttributes.GLOBAL);
 
         if (global) {
-            if (initVal != null && !initVal.getBoolAttribute("det")) {
+            if (initVal != null && !initVal.getBoolAttribute(SyntaxAttributes.DET)) {
                 log(LogLevel.ERROR, "Non-deterministic global variable initialization");
                 logError(ErrorTypes.UNKNOWN, "Non-deterministic global variable initialization");
             }
@@ -320,7 +483,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
         int dim = AstExt.countDirectTerminalNode(node, TokenTypes.LEFT_BRACKET);
         if (initVal != null) {
-            if (dim != initVal.getIntAttribute("dim")) {
+            if (dim != initVal.getIntAttribute(SyntaxAttributes.DIM)) {
                 log(LogLevel.ERROR, "Dimension mismatch");
                 logError(ErrorTypes.UNKNOWN, "Dimension mismatch");
             }
@@ -328,7 +491,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
         SyntaxNode ident = AstExt.getDirectChildNode(node, SyntaxTypes.TERMINATOR);
         VariableEntry entry;
-        var type = SymbolValueTypes.values()[AstExt.getInheritedIntAttribute(node, "type")];
+        var type = frameStack.peek().type;
         var builder = VariableEntry.builder(ident.getToken().lexeme);
         var dimNodes = AstExt.getDirectChildNodes(node, SyntaxTypes.CONST_EXP);
 
@@ -338,8 +501,8 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
             builder.addDimension(size);
         }
 
-        node.setIntAttribute("dim", dim);
-        addToSymbolTable(builder.build());
+        node.setIntAttribute(SyntaxAttributes.DIM, dim);
+        addToSymbolTable(builder.build(), ident);
 
         return true;
     }
@@ -347,41 +510,41 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     private boolean exitInitVal(SyntaxNode node) {
         if (node.getFirstChild().is(SyntaxTypes.EXP)) {
             var exp = node.getFirstChild();
-            if (exp.getIntAttribute("dim") != 0) {
+            if (exp.getIntAttribute(SyntaxAttributes.DIM) != 0) {
                 log(LogLevel.ERROR, "Dimension mismatch");
                 logError(ErrorTypes.UNKNOWN, "Dimension mismatch");
             }
-            node.setAttribute("dim", "0");
-            if (node.getFirstChild().getBoolAttribute("det")) {
-                node.setBoolAttribute("det", true);
-                node.setIntAttribute("value", node.getFirstChild().getIntAttribute("value"));
+            node.setAttribute(SyntaxAttributes.DIM, "0");
+            if (node.getFirstChild().getBoolAttribute(SyntaxAttributes.DET)) {
+                node.setBoolAttribute(SyntaxAttributes.DET, true);
+                node.setIntAttribute(SyntaxAttributes.VALUE, node.getFirstChild().getIntAttribute(SyntaxAttributes.VALUE));
             }
         } else {
             int size = AstExt.countDirectChildNode(node, SyntaxTypes.INIT_VAL);
             var child = AstExt.getDirectChildNode(node, SyntaxTypes.INIT_VAL);
-            int dim = child.getIntAttribute("dim");
-            int childSize = child.getIntAttribute("size");
+            int dim = child.getIntAttribute(SyntaxAttributes.DIM);
+            int childSize = child.getIntAttribute(SyntaxAttributes.SIZE);
             boolean det = true;
             for (child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
                 if (!child.is(SyntaxTypes.CONST_INIT_VAL)) {
                     continue;
                 }
-                if (child.getIntAttribute("dim") != dim) {
+                if (child.getIntAttribute(SyntaxAttributes.DIM) != dim) {
                     log(LogLevel.ERROR, "Dimension mismatch");
                     logError(ErrorTypes.UNKNOWN, "Dimension mismatch");
                 }
-                if (child.getIntAttribute("size") != childSize) {
+                if (child.getIntAttribute(SyntaxAttributes.SIZE) != childSize) {
                     log(LogLevel.ERROR, "Size mismatch");
                     logError(ErrorTypes.UNKNOWN, "Size mismatch");
                 }
-                if (!child.getBoolAttribute("det")) {
+                if (!child.getBoolAttribute(SyntaxAttributes.DET)) {
                     det = false;
                 }
             }
-            node.setIntAttribute("dim", dim + 1);
-            node.setIntAttribute("size", size);
+            node.setIntAttribute(SyntaxAttributes.DIM, dim + 1);
+            node.setIntAttribute(SyntaxAttributes.SIZE, size);
             if (det) {
-                node.setBoolAttribute("det", true);
+                node.setBoolAttribute(SyntaxAttributes.DET, true);
             }
         }
 
@@ -389,11 +552,11 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean exitFuncDef(SyntaxNode node) {
-        if (node.getBoolAttribute("bad")) {
+        if (node.getBoolAttribute(SyntaxAttributes.BAD)) {
             return true;
         }
 
-        var type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, "type")];
+        var type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, SyntaxAttributes.TYPE)];
         if (type == SymbolValueTypes.INT) {
             // set error candidate to '}'
             errorCandidate = node.getLastChild().getLastChild();
@@ -409,9 +572,9 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean exitFuncDecl(SyntaxNode node) {
-        var type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, "type")];
-        node.setIntAttribute("type", type.ordinal());
-        node.getParent().setIntAttribute("type", type.ordinal());
+        var type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, SyntaxAttributes.TYPE)];
+        node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+        node.getParent().setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
 
         var ident = AstExt.getDirectChildNode(node, SyntaxTypes.TERMINATOR);
         var builder = FunctionEntry.builder(ident.getToken().lexeme).setType(type);
@@ -419,20 +582,19 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         if (params != null) {
             var paramList = AstExt.getDirectChildNodes(params, SyntaxTypes.FUNC_FPARAM);
             for (var param : paramList) {
-                var paramType = SymbolValueTypes.values()[param.getIntAttribute("type")];
-                int paramDim = param.getIntAttribute("dim");
-                String paramName = param.getAttribute("name");
+                var paramType = SymbolValueTypes.values()[param.getIntAttribute(SyntaxAttributes.TYPE)];
+                int paramDim = param.getIntAttribute(SyntaxAttributes.DIM);
+                String paramName = param.getAttribute(SyntaxAttributes.NAME);
                 if (paramDim == 0) {
                     builder.addParam(paramType, paramName);
                 } else {
-                    var sizes = AstExt.deserializeArray(param.getAttribute("sizes"));
-                    builder.addParam(paramType, paramName, sizes);
+                    builder.addParam(paramType, paramName, param.getArrayAttribute(SyntaxAttributes.SIZES));
                 }
             }
         }
 
-        if (!addToSymbolTable(builder.build())) {
-            node.getParent().setBoolAttribute("bad", true);
+        if (!addToSymbolTable(builder.build(), ident)) {
+            node.getParent().setBoolAttribute(SyntaxAttributes.BAD, true);
         }
 
         return true;
@@ -445,60 +607,60 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
             case VOID -> SymbolValueTypes.VOID;
             default -> SymbolValueTypes.ANY;
         };
-        node.setIntAttribute("type", type.ordinal());
-        node.getParent().setIntAttribute("type", type.ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+        node.getParent().setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+        frameStack.peek().type = type;
 
         return true;
     }
 
     private boolean exitFuncFParams(SyntaxNode node) {
         int count = AstExt.countDirectChildNode(node, SyntaxTypes.FUNC_FPARAM);
-        node.setIntAttribute("argc", count);
+        node.setIntAttribute(SyntaxAttributes.ARGC, count);
         return true;
     }
 
     private boolean exitFuncFParam(SyntaxNode node) {
         var ident = AstExt.getDirectChildNode(node, SyntaxTypes.TERMINATOR);
         String name = ident.getToken().lexeme;
-        node.setAttribute("name", name);
+        node.setAttribute(SyntaxAttributes.NAME, name);
         int dim = AstExt.countDirectTerminalNode(node, TokenTypes.LEFT_BRACKET);
-        node.setIntAttribute("dim", dim);
+        node.setIntAttribute(SyntaxAttributes.DIM, dim);
         if (dim > 0) {
-            node.setIntAttribute("type", SymbolValueTypes.ARRAY.ordinal());
+            node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.ARRAY.ordinal());
         } else {
-            node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
+            node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
         }
 
-        var dimensions = new ArrayList<Integer>();
+        // The first dimension is always 0.
+        var dimensions = new int[dim];
         if (dim > 0) {
-            dimensions.add(0);
             var dimNodes = AstExt.getDirectChildNodes(node, SyntaxTypes.CONST_EXP);
             for (int i = 0; i < dim - 1; i++) {
-                int size = validateConstSubscription(dimNodes.get(i));
-                dimensions.add(size);
+                dimensions[i + 1] = validateConstSubscription(dimNodes.get(i));
             }
         }
-        node.setAttribute("sizes", AstExt.serializeArray(dimensions));
+        node.setArrayAttribute(SyntaxAttributes.SIZES, dimensions);
 
         return true;
     }
 
     private boolean exitFuncAParams(SyntaxNode node) {
         int count = AstExt.countDirectChildNode(node, SyntaxTypes.FUNC_APARAM);
-        node.setIntAttribute("argc", count);
+        node.setIntAttribute(SyntaxAttributes.ARGC, count);
         return true;
     }
 
     private boolean exitFuncAParam(SyntaxNode node) {
         var exp = AstExt.getDirectChildNode(node, SyntaxTypes.EXP);
-        var type = SymbolValueTypes.values()[exp.getIntAttribute("type")];
-        node.setIntAttribute("type", type.ordinal());
+        var type = SymbolValueTypes.values()[exp.getIntAttribute(SyntaxAttributes.TYPE)];
+        node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
 
         if (type == SymbolValueTypes.ARRAY) {
-            int dim = exp.getIntAttribute("dim");
-            node.setIntAttribute("dim", dim);
+            int dim = exp.getIntAttribute(SyntaxAttributes.DIM);
+            node.setIntAttribute(SyntaxAttributes.DIM, dim);
             if (dim == 2) {
-                node.setIntAttribute("size", exp.getIntAttribute("size"));
+                node.setIntAttribute(SyntaxAttributes.SIZE, exp.getIntAttribute(SyntaxAttributes.SIZE));
             }
         }
 
@@ -506,10 +668,15 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean enterBlock(SyntaxNode node) {
+        if (bodyCollector != null && isDeferred(node)) {
+            bodyCollector.collect(node.getParent(), frameStack.peek().type, globalOrder.size());
+            return false;
+        }
+
         currentBlock = getOrCreateBlock(node);
 
         if (node.getParent().is(SyntaxTypes.FUNC_DEF)) {
-            if (node.getParent().getBoolAttribute("bad")) {
+            if (node.getParent().getBoolAttribute(SyntaxAttributes.BAD)) {
                 return false;
             }
 
@@ -518,7 +685,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
                 var params = SymbolTableExt.buildParamVariableEntries(funcFParams);
                 for (var param : params) {
                     errorCandidate = param.node();
-                    addToSymbolTable(param.entry());
+                    addToSymbolTable(param.entry(), AstExt.getDirectChildNode(param.node(), SyntaxTypes.TERMINATOR));
                     errorCandidate = null;
                 }
             }
@@ -528,11 +695,13 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private boolean exitBlock(SyntaxNode node) {
         currentBlock = currentBlock.getParent();
+        scope.exitScope();
         return true;
     }
 
     private boolean enterMainFuncDef(SyntaxNode node) {
-        node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
+        frameStack.peek().type = SymbolValueTypes.INT;
         return true;
     }
 
@@ -550,18 +719,18 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private boolean exitAssignmentStmt(SyntaxNode node) {
         var lVal = AstExt.getDirectChildNode(node, SyntaxTypes.LVAL);
-        var type = SymbolValueTypes.values()[lVal.getIntAttribute("type")];
+        var type = SymbolValueTypes.values()[lVal.getIntAttribute(SyntaxAttributes.TYPE)];
         if (type != SymbolValueTypes.INT) {
             log(LogLevel.ERROR, "Invalid assignment");
             logError(ErrorTypes.UNKNOWN, "Invalid assignment");
         }
-        if (lVal.getBoolAttribute("const")) {
+        if (lVal.getBoolAttribute(SyntaxAttributes.CONST)) {
             log(LogLevel.ERROR, "Assignment to constant");
             logError(ErrorTypes.ASSIGN_TO_CONST, "Assignment to constant");
         }
 
         var exp = AstExt.getDirectChildNode(node, SyntaxTypes.EXP);
-        if (type.ordinal() != AstExt.getSynthesizedIntAttribute(exp, "type")) {
+        if (type.ordinal() != AstExt.getSynthesizedIntAttribute(exp, SyntaxAttributes.TYPE)) {
             log(LogLevel.ERROR, "Type mismatch");
             logError(ErrorTypes.UNKNOWN, "Type mismatch");
         }
@@ -572,9 +741,10 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     private boolean exitLVal(SyntaxNode node) {
         SyntaxNode ident = node.getFirstChild();
         String name = ident.getToken().lexeme;
-        SymbolTableEntry rawEntry = currentBlock.findEntry(name);
+        int id = ident.getToken().id;
+        SymbolTableEntry rawEntry = scope.findEntry(name, id);
 
-        node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
 
         if (rawEntry == null) {
             log(LogLevel.ERROR, "Undefined symbol: " + name);
@@ -582,19 +752,19 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
             return true;
         }
 
-        int expectedDim = 0;
-        ArrayList<Integer> sizes = new ArrayList<>();
+        int expectedDim;
+        int[] sizes;
         if (rawEntry instanceof ConstantEntry entry) {
-            node.setBoolAttribute("const", true);
+            node.setBoolAttribute(SyntaxAttributes.CONST, true);
             expectedDim = entry.getDimension();
-            sizes.addAll(entry.getSizes());
+            sizes = entry.getSizes();
         } else if (rawEntry instanceof VariableEntry entry) {
             expectedDim = entry.getDimension();
-            sizes.addAll(entry.getSizes());
+            sizes = entry.getSizes();
         } else {
             log(LogLevel.ERROR, "Invalid symbol: " + name);
             logError(ErrorTypes.UNDEFINED_SYMBOL, "Invalid symbol: " + name);
-            node.setIntAttribute("type", SymbolValueTypes.ANY.ordinal());
+            node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.ANY.ordinal());
             return true;
         }
 
@@ -606,29 +776,29 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         }
 
         int finalDim = expectedDim - actualDim;
-        node.setIntAttribute("dim", finalDim);
+        node.setIntAttribute(SyntaxAttributes.DIM, finalDim);
         if (finalDim == 0) {
-            node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
-            node.setAttribute("sizes", "");
+            node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
+            node.setArrayAttribute(SyntaxAttributes.SIZES, new int[0]);
         } else {
-            node.setIntAttribute("type", SymbolValueTypes.ARRAY.ordinal());
-            ArrayList<Integer> finalSizes = new ArrayList<>();
-            finalSizes.add(0);
-            finalSizes.addAll(sizes.subList(expectedDim - finalDim + 1, expectedDim));
-            node.setAttribute("sizes", AstExt.serializeArray(finalSizes));
+            node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.ARRAY.ordinal());
+            // The first dimension is always 0, followed by the remaining ones.
+            int[] finalSizes = new int[finalDim];
+            System.arraycopy(sizes, expectedDim - finalDim + 1, finalSizes, 1, finalDim - 1);
+            node.setArrayAttribute(SyntaxAttributes.SIZES, finalSizes);
         }
 
-        if (currentBlock.findLocalEntry(name) == null) {
-            node.setIntAttribute("tbl", currentBlock.getParent().getId());
+        if (scope.findLocalEntry(name, id) == null) {
+            node.setIntAttribute(SyntaxAttributes.TBL, currentBlock.getParent().getId());
         } else {
-            node.setIntAttribute("tbl", currentBlock.getId());
+            node.setIntAttribute(SyntaxAttributes.TBL, currentBlock.getId());
         }
 
         return true;
     }
 
     private boolean exitCond(SyntaxNode node) {
-        var type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, "type")];
+        var type = SymbolValueTypes.values()[AstExt.getSynthesizedIntAttribute(node, SyntaxAttributes.TYPE)];
         if (type != SymbolValueTypes.INT) {
             log(LogLevel.ERROR, "Non-integer condition");
             logError(ErrorTypes.UNKNOWN, "Non-integer condition");
@@ -638,26 +808,27 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean enterForStmt(SyntaxNode node) {
-        node.setBoolAttribute("loop", true);
+        node.setBoolAttribute(SyntaxAttributes.LOOP, true);
+        frameStack.peek().loop = true;
         return true;
     }
 
     private boolean exitForInnerStmt(SyntaxNode node) {
         var lVal = AstExt.getDirectChildNode(node, SyntaxTypes.LVAL);
-        var type = SymbolValueTypes.values()[lVal.getIntAttribute("type")];
+        var type = SymbolValueTypes.values()[lVal.getIntAttribute(SyntaxAttributes.TYPE)];
         if (type != SymbolValueTypes.INT) {
             log(LogLevel.ERROR, "Invalid assignment");
             logError(ErrorTypes.UNKNOWN, "Invalid assignment");
             return true;
         }
-        if (lVal.getBoolAttribute("const")) {
+        if (lVal.getBoolAttribute(SyntaxAttributes.CONST)) {
             log(LogLevel.ERROR, "Assignment to constant");
             logError(ErrorTypes.ASSIGN_TO_CONST, "Assignment to constant");
             return true;
         }
 
         var exp = AstExt.getDirectChildNode(node, SyntaxTypes.EXP);
-        if (type.ordinal() != AstExt.getSynthesizedIntAttribute(exp, "type")) {
+        if (type.ordinal() != AstExt.getSynthesizedIntAttribute(exp, SyntaxAttributes.TYPE)) {
             log(LogLevel.ERROR, "Type mismatch");
             logError(ErrorTypes.UNKNOWN, "Type mismatch");
         }
@@ -666,7 +837,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean exitBreakStmt(SyntaxNode node) {
-        if (!AstExt.getInheritedBoolAttribute(node, "loop")) {
+        if (!frameStack.peek().loop) {
             log(LogLevel.ERROR, "Break outside loop");
             logError(ErrorTypes.ILLEGAL_BREAK, "Break outside loop");
         }
@@ -675,7 +846,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean exitContinueStmt(SyntaxNode node) {
-        if (!AstExt.getInheritedBoolAttribute(node, "loop")) {
+        if (!frameStack.peek().loop) {
             log(LogLevel.ERROR, "Continue outside loop");
             logError(ErrorTypes.ILLEGAL_CONTINUE, "Continue outside loop");
         }
@@ -687,14 +858,14 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         var exp = AstExt.getDirectChildNode(node, SyntaxTypes.EXP);
         SymbolValueTypes type;
         if (exp != null) {
-            type = SymbolValueTypes.values()[exp.getIntAttribute("type")];
+            type = SymbolValueTypes.values()[exp.getIntAttribute(SyntaxAttributes.TYPE)];
         } else {
             type = SymbolValueTypes.VOID;
         }
 
         // Get
-        var funcType = SymbolValueTypes.values()[AstExt.getInheritedIntAttribute(node, "type")];
-        node.setIntAttribute("type", type.ordinal());
+        var funcType = frameStack.peek().type;
+        node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
 
         if (funcType == SymbolValueTypes.VOID && type != SymbolValueTypes.VOID) {
             log(LogLevel.ERROR, "Invalid return type");
@@ -709,13 +880,13 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private boolean exitInStmt(SyntaxNode node) {
         var lVal = AstExt.getDirectChildNode(node, SyntaxTypes.LVAL);
-        var type = SymbolValueTypes.values()[lVal.getIntAttribute("type")];
+        var type = SymbolValueTypes.values()[lVal.getIntAttribute(SyntaxAttributes.TYPE)];
         if (type != SymbolValueTypes.INT) {
             log(LogLevel.ERROR, "Invalid assignment");
             logError(ErrorTypes.UNKNOWN, "Invalid assignment");
             return true;
         }
-        if (lVal.getBoolAttribute("const")) {
+        if (lVal.getBoolAttribute(SyntaxAttributes.CONST)) {
             log(LogLevel.ERROR, "Assignment to constant");
             logError(ErrorTypes.ASSIGN_TO_CONST, "Assignment to constant");
             return true;
@@ -741,7 +912,7 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
             logError(ErrorTypes.PRINTF_EXTRA_ARGUMENTS, "Argument count mismatch for printf");
         }
         for (var arg : args) {
-            var argType = SymbolValueTypes.values()[arg.getIntAttribute("type")];
+            var argType = SymbolValueTypes.values()[arg.getIntAttribute(SyntaxAttributes.TYPE)];
             if (argType != SymbolValueTypes.INT) {
                 log(LogLevel.ERROR, "Invalid argument type");
                 logError(ErrorTypes.ARGUMENT_TYPE_MISMATCH, "Invalid argument type");
@@ -752,13 +923,13 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean defaultExitExp(SyntaxNode node) {
-        node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
 
         if (node.hasManyChildren()) {
             var left = node.getFirstChild();
-            var leftType = SymbolValueTypes.values()[left.getIntAttribute("type")];
+            var leftType = SymbolValueTypes.values()[left.getIntAttribute(SyntaxAttributes.TYPE)];
             var right = node.getLastChild();
-            var rightType = SymbolValueTypes.values()[right.getIntAttribute("type")];
+            var rightType = SymbolValueTypes.values()[right.getIntAttribute(SyntaxAttributes.TYPE)];
 
             if (leftType != rightType) {
                 log(LogLevel.ERROR, "Type mismatch");
@@ -768,32 +939,32 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
                     log(LogLevel.ERROR, "Invalid operation");
                     logError(ErrorTypes.UNKNOWN, "Invalid operation");
                 } else {
-                    node.setIntAttribute("type", leftType.ordinal());
-                    if (left.getBoolAttribute("det") && right.getBoolAttribute("det")) {
-                        node.setBoolAttribute("det", true);
+                    node.setIntAttribute(SyntaxAttributes.TYPE, leftType.ordinal());
+                    if (left.getBoolAttribute(SyntaxAttributes.DET) && right.getBoolAttribute(SyntaxAttributes.DET)) {
+                        node.setBoolAttribute(SyntaxAttributes.DET, true);
 
-                        int leftValue = left.getIntAttribute("value");
-                        int rightValue = right.getIntAttribute("value");
+                        int leftValue = left.getIntAttribute(SyntaxAttributes.VALUE);
+                        int rightValue = right.getIntAttribute(SyntaxAttributes.VALUE);
                         var op = AstExt.getDirectChildNode(node, SyntaxTypes.TERMINATOR).getToken().lexeme;
                         int value = AstExt.evaluateBinary(op, leftValue, rightValue);
 
-                        node.setIntAttribute("value", value);
+                        node.setIntAttribute(SyntaxAttributes.VALUE, value);
                     }
                 }
             }
         } else {
-            var type = SymbolValueTypes.values()[node.getFirstChild().getIntAttribute("type")];
-            node.setIntAttribute("type", type.ordinal());
+            var type = SymbolValueTypes.values()[node.getFirstChild().getIntAttribute(SyntaxAttributes.TYPE)];
+            node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
             if (type == SymbolValueTypes.ARRAY) {
-                int dim = node.getFirstChild().getIntAttribute("dim");
-                node.setIntAttribute("dim", dim);
+                int dim = node.getFirstChild().getIntAttribute(SyntaxAttributes.DIM);
+                node.setIntAttribute(SyntaxAttributes.DIM, dim);
                 if (dim == 2) {
-                    node.setIntAttribute("size", node.getFirstChild().getIntAttribute("size"));
+                    node.setIntAttribute(SyntaxAttributes.SIZE, node.getFirstChild().getIntAttribute(SyntaxAttributes.SIZE));
                 }
             } else if (type == SymbolValueTypes.INT) {
-                if (node.getFirstChild().getBoolAttribute("det")) {
-                    node.setBoolAttribute("det", true);
-                    node.setIntAttribute("value", node.getFirstChild().getIntAttribute("value"));
+                if (node.getFirstChild().getBoolAttribute(SyntaxAttributes.DET)) {
+                    node.setBoolAttribute(SyntaxAttributes.DET, true);
+                    node.setIntAttribute(SyntaxAttributes.VALUE, node.getFirstChild().getIntAttribute(SyntaxAttributes.VALUE));
                 }
             }
         }
@@ -803,17 +974,17 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
 
     private boolean exitExp(SyntaxNode node) {
         var child = node.getFirstChild();
-        var type = SymbolValueTypes.values()[child.getIntAttribute("type")];
+        var type = SymbolValueTypes.values()[child.getIntAttribute(SyntaxAttributes.TYPE)];
 
-        node.setIntAttribute("type", type.ordinal());
-        if (child.getBoolAttribute("det")) {
-            node.setBoolAttribute("det", true);
-            node.setIntAttribute("value", child.getIntAttribute("value"));
+        node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+        if (child.getBoolAttribute(SyntaxAttributes.DET)) {
+            node.setBoolAttribute(SyntaxAttributes.DET, true);
+            node.setIntAttribute(SyntaxAttributes.VALUE, child.getIntAttribute(SyntaxAttributes.VALUE));
         } else {
             if (type == SymbolValueTypes.ARRAY) {
-                node.setIntAttribute("dim", child.getIntAttribute("dim"));
-                if (child.getIntAttribute("dim") == 2) {
-                    node.setIntAttribute("size", child.getIntAttribute("size"));
+                node.setIntAttribute(SyntaxAttributes.DIM, child.getIntAttribute(SyntaxAttributes.DIM));
+                if (child.getIntAttribute(SyntaxAttributes.DIM) == 2) {
+                    node.setIntAttribute(SyntaxAttributes.SIZE, child.getIntAttribute(SyntaxAttributes.SIZE));
                 }
             }
         }
@@ -821,13 +992,13 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean enterConstExp(SyntaxNode node) {
-        node.setBoolAttribute("const", true);
+        node.setBoolAttribute(SyntaxAttributes.CONST, true);
         return true;
     }
 
     private boolean exitConstExp(SyntaxNode node) {
         exitExp(node);
-        if (!node.getBoolAttribute("det")) {
+        if (!node.getBoolAttribute(SyntaxAttributes.DET)) {
             log(LogLevel.ERROR, "Non-deterministic constant expression");
             logError(ErrorTypes.UNKNOWN, "Non-deterministic constant expression");
         }
@@ -836,33 +1007,33 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean exitUnaryExp(SyntaxNode node) {
-        node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
 
         if (node.hasManyChildren()) {
             var exp = node.getLastChild();
-            var type = SymbolValueTypes.values()[exp.getIntAttribute("type")];
+            var type = SymbolValueTypes.values()[exp.getIntAttribute(SyntaxAttributes.TYPE)];
             if (type != SymbolValueTypes.INT) {
                 log(LogLevel.ERROR, "Invalid operation");
                 logError(ErrorTypes.UNKNOWN, "Invalid operation");
-            } else if (exp.getBoolAttribute("det")) {
-                node.setBoolAttribute("det", true);
-                int value = exp.getIntAttribute("value");
-                var op = node.getFirstChild().getAttribute("op");
-                node.setIntAttribute("value", AstExt.evaluateUnary(op, value));
+            } else if (exp.getBoolAttribute(SyntaxAttributes.DET)) {
+                node.setBoolAttribute(SyntaxAttributes.DET, true);
+                int value = exp.getIntAttribute(SyntaxAttributes.VALUE);
+                var op = node.getFirstChild().getAttribute(SyntaxAttributes.OP);
+                node.setIntAttribute(SyntaxAttributes.VALUE, AstExt.evaluateUnary(op, value));
             }
         } else {
             var child = node.getFirstChild();
-            var type = SymbolValueTypes.values()[child.getIntAttribute("type")];
-            node.setIntAttribute("type", type.ordinal());
+            var type = SymbolValueTypes.values()[child.getIntAttribute(SyntaxAttributes.TYPE)];
+            node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
             if (type == SymbolValueTypes.INT) {
-                if (child.getBoolAttribute("det")) {
-                    node.setBoolAttribute("det", true);
-                    node.setIntAttribute("value", child.getIntAttribute("value"));
+                if (child.getBoolAttribute(SyntaxAttributes.DET)) {
+                    node.setBoolAttribute(SyntaxAttributes.DET, true);
+                    node.setIntAttribute(SyntaxAttributes.VALUE, child.getIntAttribute(SyntaxAttributes.VALUE));
                 }
             } else if (type == SymbolValueTypes.ARRAY) {
-                node.setIntAttribute("dim", child.getIntAttribute("dim"));
-                if (child.getIntAttribute("dim") == 2) {
-                    node.setIntAttribute("size", child.getIntAttribute("size"));
+                node.setIntAttribute(SyntaxAttributes.DIM, child.getIntAttribute(SyntaxAttributes.DIM));
+                if (child.getIntAttribute(SyntaxAttributes.DIM) == 2) {
+                    node.setIntAttribute(SyntaxAttributes.SIZE, child.getIntAttribute(SyntaxAttributes.SIZE));
                 }
             }
         }
@@ -871,12 +1042,12 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean exitUnaryOp(SyntaxNode node) {
-        node.setAttribute("op", node.getFirstChild().getToken().lexeme);
+        node.setAttribute(SyntaxAttributes.OP, node.getFirstChild().getToken().lexeme);
         return true;
     }
 
     private boolean exitPrimaryExp(SyntaxNode node) {
-        node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
 
         var child = node.getFirstChild();
         if (node.hasManyChildren()) {
@@ -884,34 +1055,34 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         }
 
         if (child.is(SyntaxTypes.LVAL)) {
-            var type = SymbolValueTypes.values()[child.getIntAttribute("type")];
+            var type = SymbolValueTypes.values()[child.getIntAttribute(SyntaxAttributes.TYPE)];
             if (type != SymbolValueTypes.INT) {
-                node.setIntAttribute("type", type.ordinal());
-                node.setIntAttribute("dim", child.getIntAttribute("dim"));
-                if (child.getIntAttribute("dim") == 2) {
-                    node.setIntAttribute("size", child.getIntAttribute("size"));
+                node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+                node.setIntAttribute(SyntaxAttributes.DIM, child.getIntAttribute(SyntaxAttributes.DIM));
+                if (child.getIntAttribute(SyntaxAttributes.DIM) == 2) {
+                    node.setIntAttribute(SyntaxAttributes.SIZE, child.getIntAttribute(SyntaxAttributes.SIZE));
                 }
             } else {
                 int[] value = { 0 };
                 if (AstExt.tryEvaluate(child, currentBlock, value)) {
-                    node.setBoolAttribute("det", true);
-                    node.setIntAttribute("value", value[0]);
+                    node.setBoolAttribute(SyntaxAttributes.DET, true);
+                    node.setIntAttribute(SyntaxAttributes.VALUE, value[0]);
                 }
             }
         } else if (child.is(SyntaxTypes.NUMBER)) {
-            node.setBoolAttribute("det", true);
-            node.setIntAttribute("value", child.getIntAttribute("value"));
+            node.setBoolAttribute(SyntaxAttributes.DET, true);
+            node.setIntAttribute(SyntaxAttributes.VALUE, child.getIntAttribute(SyntaxAttributes.VALUE));
         } else {
-            var type = SymbolValueTypes.values()[child.getIntAttribute("type")];
+            var type = SymbolValueTypes.values()[child.getIntAttribute(SyntaxAttributes.TYPE)];
             if (type != SymbolValueTypes.INT) {
-                node.setIntAttribute("type", type.ordinal());
-                node.setIntAttribute("dim", child.getIntAttribute("dim"));
-                if (child.getIntAttribute("dim") == 2) {
-                    node.setIntAttribute("size", child.getIntAttribute("size"));
+                node.setIntAttribute(SyntaxAttributes.TYPE, type.ordinal());
+                node.setIntAttribute(SyntaxAttributes.DIM, child.getIntAttribute(SyntaxAttributes.DIM));
+                if (child.getIntAttribute(SyntaxAttributes.DIM) == 2) {
+                    node.setIntAttribute(SyntaxAttributes.SIZE, child.getIntAttribute(SyntaxAttributes.SIZE));
                 }
-            } else if (child.getBoolAttribute("det")) {
-                node.setBoolAttribute("det", true);
-                node.setIntAttribute("value", child.getIntAttribute("value"));
+            } else if (child.getBoolAttribute(SyntaxAttributes.DET)) {
+                node.setBoolAttribute(SyntaxAttributes.DET, true);
+                node.setIntAttribute(SyntaxAttributes.VALUE, child.getIntAttribute(SyntaxAttributes.VALUE));
             }
         }
 
@@ -919,18 +1090,19 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private boolean exitFuncCall(SyntaxNode node) {
-        String name = node.getFirstChild().getToken().lexeme;
-        var rawEntry = currentBlock.findEntry(name);
+        var ident = node.getFirstChild().getToken();
+        String name = ident.lexeme;
+        var rawEntry = scope.findEntry(name, ident.id);
         if (!(rawEntry instanceof FunctionEntry)) {
             log(LogLevel.ERROR, "Invalid function call");
             logError(ErrorTypes.UNDEFINED_SYMBOL, "Invalid function call");
-            node.setIntAttribute("type", SymbolValueTypes.ANY.ordinal());
+            node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.ANY.ordinal());
             return true;
         }
         var entry = (FunctionEntry) rawEntry;
-        node.setIntAttribute("type", entry.getType().ordinal());
+        node.setIntAttribute(SyntaxAttributes.TYPE, entry.getType().ordinal());
 
-        int argc = AstExt.getSynthesizedIntAttribute(node, "argc");
+        int argc = AstExt.getSynthesizedIntAttribute(node, SyntaxAttributes.ARGC);
         if (argc != entry.getParamCount()) {
             log(LogLevel.ERROR, String.format("Argument count mismatch, expect %d, got %d", entry.getParamCount(), argc));
             logError(ErrorTypes.ARGUMENT_COUNT_MISMATCH, "Argument count mismatch, expect " + entry.getParamCount() + ", got " + argc);
@@ -945,25 +1117,24 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
         var args = AstExt.getDirectChildNodes(params, SyntaxTypes.FUNC_APARAM);
         for (int i = 0; i < upper; i++) {
             var param = entry.getParam(i);
-            var argType = SymbolValueTypes.values()[args.get(i).getIntAttribute("type")];
+            var argType = SymbolValueTypes.values()[args.get(i).getIntAttribute(SyntaxAttributes.TYPE)];
             if ((argType != param.type) && (argType != SymbolValueTypes.ANY)) {
                 log(LogLevel.ERROR, "Argument type mismatch");
                 logError(ErrorTypes.ARGUMENT_TYPE_MISMATCH, "Argument type mismatch");
                 continue;
             }
             if (argType == SymbolValueTypes.ARRAY) {
-                String sizesStr = AstExt.getSynthesizedAttribute(args.get(i), "sizes", "");
-                List<Integer> actualSizes = AstExt.deserializeArray(sizesStr);
+                int[] actualSizes = AstExt.getSynthesizedArrayAttribute(args.get(i), "sizes");
 
                 var expectedSize = param.dimensions;
-                if (actualSizes.size() != expectedSize.size()) {
+                if (actualSizes.length != expectedSize.length) {
                     log(LogLevel.ERROR, "Argument size mismatch");
                     logError(ErrorTypes.ARGUMENT_TYPE_MISMATCH, "Argument size mismatch");
                     continue;
                 }
 
-                for (int j = 0; j < actualSizes.size(); j++) {
-                    if (!Objects.equals(actualSizes.get(j), expectedSize.get(j))) {
+                for (int j = 0; j < actualSizes.length; j++) {
+                    if (actualSizes[j] != expectedSize[j]) {
                         log(LogLevel.ERROR, "Argument size mismatch");
                         logError(ErrorTypes.ARGUMENT_TYPE_MISMATCH, "Argument size mismatch");
                         continue;
@@ -981,10 +1152,10 @@ public class DefaultSemanticAnalyzer implements ISemanticAnalyzer, IAstVisitor {
     }
 
     private static boolean exitNumber(SyntaxNode node) {
-        node.setIntAttribute("type", SymbolValueTypes.INT.ordinal());
-        node.setBoolAttribute("det", true);
+        node.setIntAttribute(SyntaxAttributes.TYPE, SymbolValueTypes.INT.ordinal());
+        node.setBoolAttribute(SyntaxAttributes.DET, true);
 
-        node.setIntAttribute("value", Integer.parseInt(node.getFirstChild().getToken().lexeme));
+        node.setIntAttribute(SyntaxAttributes.VALUE, Integer.parseInt(node.getFirstChild().getToken().lexeme));
 
         return true;
     }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.parser.impl;
+
+import tomic.logger.debug.IDebugLogger;
+import tomic.logger.debug.impl.BufferedLogger;
+import tomic.logger.error.IErrorLogger;
+import tomic.logger.error.impl.BufferedErrorLogger;
+import tomic.parser.ISemanticAnalyzer;
+import tomic.parser.ast.IAstVisitor;
+import tomic.parser.ast.SyntaxAttributes;
+import tomic.parser.ast.SyntaxNode;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.SyntaxTypes;
+import tomic.parser.table.SymbolTable;
+import tomic.parser.table.SymbolTableEntry;
+import tomic.parser.table.SymbolValueTypes;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Semantic analysis with function bodies analyzed concurrently. Globals
+ * and function signatures are done first in order, then each body is done
+ * on its own with a private log. Logs are merged in source order, and
+ * block ids are reserved in advance, so the result is the same as with
+ * {@link DefaultSemanticAnalyzer}.
+ */
+public class ParallelSemanticAnalyzer implements ISemanticAnalyzer {
+    private final IErrorLogger errorLogger;
+    private final IDebugLogger debugLogger;
+    private final ForkJoinPool pool;
+
+    private static class Body {
+        final SyntaxNode funcDef;
+        final SymbolValueTypes type;
+        final int visible;
+        // Logs of the first pass before this body.
+        final int errorMark;
+        final int logMark;
+
+        int firstBlock;
+        BufferedErrorLogger errors;
+        BufferedLogger logs;
+
+        Body(SyntaxNode funcDef, SymbolValueTypes type, int visible, int errorMark, int logMark) {
+            this.funcDef = funcDef;
+            this.type = type;
+            this.visible = visible;
+            this.errorMark = errorMark;
+            this.logMark = logMark;
+        }
+    }
+
+    public ParallelSemanticAnalyzer(IErrorLogger errorLogger, IDebugLogger debugLogger) {
+        this(errorLogger, debugLogger, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSemanticAnalyzer(IErrorLogger errorLogger, IDebugLogger debugLogger, ForkJoinPool pool) {
+        this.errorLogger = errorLogger;
+        this.debugLogger = debugLogger;
+        this.pool = pool;
+    }
+
+    @Override
+    public SymbolTable analyze(SyntaxTree tree) {
+        var errors = new BufferedErrorLogger();
+        var logs = new BufferedLogger();
+        var bodies = new ArrayList<Body>();
+        var globalOrder = new IdentityHashMap<SymbolTableEntry, Integer>();
+
+        var table = new DefaultSemanticAnalyzer(errors, logs).analyzeGlobals(tree,
+                (funcDef, type, visible) -> bodies.add(new Body(funcDef, type, visible, errors.count(), logs.size())),
+                globalOrder);
+        var global = table.getBlock(0);
+
+        // Block ids follow the source order, as if bodies were done in turn.
+        int[] counts = new int[bodies.size()];
+        runAll(bodies.size(), i -> counts[i] = countBlocks(bodies.get(i).funcDef));
+        for (int i = 0; i < bodies.size(); i++) {
+            bodies.get(i).firstBlock = table.reserveBlocks(counts[i]);
+        }
+
+        runAll(bodies.size(), i -> {
+            var body = bodies.get(i);
+            body.errors = new BufferedErrorLogger();
+            body.logs = new BufferedLogger();
+            new DefaultSemanticAnalyzer(body.errors, body.logs).analyzeBody(table, global, name -> {
+                var entry = global.findLocalEntry(name);
+                return (entry != null && globalOrder.get(entry) < body.visible) ? entry : null;
+            }, body.funcDef, body.type, body.firstBlock);
+        });
+
+        int errorFrom = 0;
+        int logFrom = 0;
+        for (var body : bodies) {
+            errors.flushTo(errorLogger, errorFrom, body.errorMark);
+            body.errors.flushTo(errorLogger);
+            errorFrom = body.errorMark;
+            logs.flushTo(debugLogger, logFrom, body.logMark);
+            body.logs.flushTo(debugLogger);
+            logFrom = body.logMark;
+        }
+        errors.flushTo(errorLogger, errorFrom, errors.count());
+        logs.flushTo(debugLogger, logFrom, logs.size());
+
+        return table;
+    }
+
+    private void runAll(int count, IntConsumer action) {
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(action)).join();
+    }
+
+    /**
+     * Number of blocks the body creates. A bad function skips its body,
+     * but still gets a block.
+     */
+    private static int countBlocks(SyntaxNode funcDef) {
+        if (funcDef.getBoolAttribute(SyntaxAttributes.BAD)) {
+            return 1;
+        }
+        int[] count = { 0 };
+        funcDef.getLastChild().accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                if (node.is(SyntaxTypes.BLOCK)) {
+                    count[0]++;
+                }
+                return true;
+            }
+        });
+        return count[0];
+    }
+}
@@ -20,8 +20,9 @@ import tomic.parser.ast.SyntaxNode;
 import tomic.parser.ast.SyntaxTree;
 import tomic.parser.ast.SyntaxTypes;
 import tomic.parser.ast.mapper.ISyntaxMapper;
-import tomic.parser.ast.trans.RightRecursiveTransformer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class ResilientSyntacticParser implements ISyntacticParser {
@@ -68,7 +69,7 @@ public class ResilientSyntacticParser implements ISyntacticParser {
 
         tree.setRoot(compUnit);
 
-        return new RightRecursiveTransformer().transform(tree);
+        return tree;
     }
 
     /*
@@ -205,13 +206,27 @@ public class ResilientSyntacticParser implements ISyntacticParser {
 
     private static final Set<TokenTypes> VAR_TYPE_FIRST = Set.of(TokenTypes.INT);
     private static final Set<TokenTypes> FUNC_TYPE_FIRST = Set.of(TokenTypes.INT, TokenTypes.VOID);
-    private static final Set<TokenTypes> ADD_EXP_AUX_FIRST = Set.of(TokenTypes.PLUS, TokenTypes.MINUS);
-    private static final Set<TokenTypes> MUL_EXP_AUX_FIRST = Set.of(TokenTypes.MULTIPLY, TokenTypes.DIVIDE, TokenTypes.MOD);
     private static final Set<TokenTypes> UNARY_OP_FIRST = Set.of(TokenTypes.PLUS, TokenTypes.MINUS, TokenTypes.NOT);
-    private static final Set<TokenTypes> OR_EXP_AUX_FIRST = Set.of(TokenTypes.OR);
-    private static final Set<TokenTypes> AND_EXP_AUX_FIRST = Set.of(TokenTypes.AND);
-    private static final Set<TokenTypes> EQ_EXP_AUX_FIRST = Set.of(TokenTypes.EQUAL, TokenTypes.NOT_EQUAL);
-    private static final Set<TokenTypes> REL_EXP_AUX_FIRST = Set.of(TokenTypes.LESS, TokenTypes.LESS_EQUAL, TokenTypes.GREATER, TokenTypes.GREATER_EQUAL);
+
+    // Binary expressions from the lowest precedence to the highest.
+    private static final SyntaxTypes[] BINARY_EXP_TYPES = {
+            SyntaxTypes.OR_EXP,
+            SyntaxTypes.AND_EXP,
+            SyntaxTypes.EQ_EXP,
+            SyntaxTypes.REL_EXP,
+            SyntaxTypes.ADD_EXP,
+            SyntaxTypes.MUL_EXP
+    };
+    private static final List<Set<TokenTypes>> BINARY_EXP_OPERATORS = List.of(
+            Set.of(TokenTypes.OR),
+            Set.of(TokenTypes.AND),
+            Set.of(TokenTypes.EQUAL, TokenTypes.NOT_EQUAL),
+            Set.of(TokenTypes.LESS, TokenTypes.LESS_EQUAL, TokenTypes.GREATER, TokenTypes.GREATER_EQUAL),
+            Set.of(TokenTypes.PLUS, TokenTypes.MINUS),
+            Set.of(TokenTypes.MULTIPLY, TokenTypes.DIVIDE, TokenTypes.MOD)
+    );
+    private static final int OR_EXP_LEVEL = 0;
+    private static final int ADD_EXP_LEVEL = 4;
 
     private boolean matchDecl() {
         var token = getLookahead();
@@ -1057,17 +1072,25 @@ public class ResilientSyntacticParser implements ISyntacticParser {
     }
 
     private SyntaxNode parseStmtAux() {
-        var inStmt = parseInStmt();
-        if (inStmt != null) {
-            return inStmt;
+        SyntaxTypes predicted = predictStmt();
+
+        // Prediction only looks at tokens, so in case of syntax errors it
+        // may still fail, then the rest are tried in the original order.
+        if (predicted == SyntaxTypes.IN_STMT) {
+            var inStmt = parseStmtAlternative(SyntaxTypes.IN_STMT);
+            if (inStmt != null) {
+                return inStmt;
+            }
         }
 
-        var assignStmt = parseAssignStmt();
-        if (assignStmt != null) {
-            return assignStmt;
+        if (predicted != SyntaxTypes.EXP_STMT) {
+            var assignStmt = parseStmtAlternative(SyntaxTypes.ASSIGNMENT_STMT);
+            if (assignStmt != null) {
+                return assignStmt;
+            }
         }
 
-        var expStmt = parseExpStmt();
+        var expStmt = parseStmtAlternative(SyntaxTypes.EXP_STMT);
         if (expStmt != null) {
             return expStmt;
         }
@@ -1076,6 +1099,73 @@ public class ResilientSyntacticParser implements ISyntacticParser {
         return null;
     }
 
+    /**
+     * Try one production of a statement that starts with an identifier.
+     * @param type IN_STMT, ASSIGNMENT_STMT or EXP_STMT
+     * @return null if it does not match
+     */
+    protected SyntaxNode parseStmtAlternative(SyntaxTypes type) {
+        return switch (type) {
+            case IN_STMT -> parseInStmt();
+            case ASSIGNMENT_STMT -> parseAssignStmt();
+            case EXP_STMT -> parseExpStmt();
+            default -> throw new IllegalArgumentException("Not a statement alternative: " + type);
+        };
+    }
+
+    /**
+     * Predict the statement that starts with an identifier. It skips
+     * the LVal, that is the identifier and all following brackets, then
+     * checks for '=' and 'getint'. Productions are tried from the
+     * predicted one in the order InStmt, AssignStmt, ExpStmt, so IN_STMT
+     * tries all of them.
+     * @return IN_STMT, ASSIGNMENT_STMT or EXP_STMT
+     */
+    protected SyntaxTypes predictStmt() {
+        int checkpoint = lexicalParser.setCheckPoint();
+        SyntaxTypes type = predictStmtAux();
+        lexicalParser.rollBack(checkpoint);
+        return type;
+    }
+
+    private SyntaxTypes predictStmtAux() {
+        // skip Ident
+        getNext();
+
+        int depth = 0;
+        while (true) {
+            Token token = getNext();
+            switch (token.type) {
+                case LEFT_BRACKET -> depth++;
+                case LEFT_PARENTHESIS -> {
+                    // A function call, not an LVal.
+                    if (depth == 0) {
+                        return SyntaxTypes.EXP_STMT;
+                    }
+                    depth++;
+                }
+                case RIGHT_BRACKET, RIGHT_PARENTHESIS -> {
+                    if (depth == 0) {
+                        return SyntaxTypes.EXP_STMT;
+                    }
+                    depth--;
+                }
+                case ASSIGN -> {
+                    // A missing ']' is recovered, so '=' ends the LVal at any depth.
+                    return getNext().is(TokenTypes.GETINT) ? SyntaxTypes.IN_STMT : SyntaxTypes.ASSIGNMENT_STMT;
+                }
+                case SEMICOLON, LEFT_BRACE, RIGHT_BRACE, TERMINATOR -> {
+                    return SyntaxTypes.EXP_STMT;
+                }
+                default -> {
+                    if (depth == 0) {
+                        return SyntaxTypes.EXP_STMT;
+                    }
+                }
+            }
+        }
+    }
+
     private SyntaxNode parseAssignStmt() {
         int checkpoint = lexicalParser.setCheckPoint();
         var root = tree.newNonTerminalNode(SyntaxTypes.ASSIGNMENT_STMT);
@@ -1611,18 +1701,7 @@ public class ResilientSyntacticParser implements ISyntacticParser {
     }
 
     private SyntaxNode parseExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.EXP);
-
-        var addExp = parseAddExp();
-        if (addExp == null) {
-            logFailedToParse(SyntaxTypes.ADD_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(addExp);
-
-        return root;
+        return parseExpression(new ExpFrame(ExpRules.EXP, 0));
     }
 
     private SyntaxNode parseConstExp() {
@@ -1640,163 +1719,6 @@ public class ResilientSyntacticParser implements ISyntacticParser {
         return root;
     }
 
-    private SyntaxNode parseAddExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.ADD_EXP);
-
-        var mulExp = parseMulExp();
-        if (mulExp == null) {
-            logFailedToParse(SyntaxTypes.MUL_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(mulExp);
-
-        var addExpAux = parseAddExpAux();
-        if (addExpAux == null) {
-            logFailedToParse(SyntaxTypes.ADD_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!addExpAux.isEpsilon()) {
-            root.insertEndChild(addExpAux);
-        }
-
-        return root;
-    }
-
-    private SyntaxNode parseAddExpAux() {
-        if (!getLookahead().is(ADD_EXP_AUX_FIRST)) {
-            return tree.newEpsilonNode();
-        }
-
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.ADD_EXP);
-
-        // '+' or '-'
-        root.insertEndChild(tree.newTerminalNode(getNext()));
-
-        var mulExp = parseMulExp();
-        if (mulExp == null) {
-            logFailedToParse(SyntaxTypes.MUL_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(mulExp);
-
-        var addExpAux = parseAddExpAux();
-        if (addExpAux == null) {
-            logFailedToParse(SyntaxTypes.ADD_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-
-        if (!addExpAux.isEpsilon()) {
-            root.insertEndChild(addExpAux);
-        }
-
-        return root;
-    }
-
-    private SyntaxNode parseMulExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.MUL_EXP);
-
-        var unaryExp = parseUnaryExp();
-        if (unaryExp == null) {
-            logFailedToParse(SyntaxTypes.UNARY_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(unaryExp);
-
-        var mulExpAux = parseMulExpAux();
-        if (mulExpAux == null) {
-            logFailedToParse(SyntaxTypes.MUL_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!mulExpAux.isEpsilon()) {
-            root.insertEndChild(mulExpAux);
-        }
-
-        return root;
-    }
-
-    private SyntaxNode parseMulExpAux() {
-        if (!getLookahead().is(MUL_EXP_AUX_FIRST)) {
-            return tree.newEpsilonNode();
-        }
-
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.MUL_EXP);
-
-        // '*' or '/' or '%'
-        root.insertEndChild(tree.newTerminalNode(getNext()));
-
-        var unaryExp = parseUnaryExp();
-        if (unaryExp == null) {
-            logFailedToParse(SyntaxTypes.UNARY_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(unaryExp);
-
-        var mulExpAux = parseMulExpAux();
-        if (mulExpAux == null) {
-            logFailedToParse(SyntaxTypes.MUL_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!mulExpAux.isEpsilon()) {
-            root.insertEndChild(mulExpAux);
-        }
-
-        return root;
-    }
-
-    private SyntaxNode parseUnaryExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.UNARY_EXP);
-
-        // UnaryExp -> UnaryOp UnaryExp
-        var unaryOp = parseUnaryOp();
-        if (unaryOp != null) {
-            root.insertEndChild(unaryOp);
-            var unaryExp = parseUnaryExp();
-            if (unaryExp == null) {
-                logFailedToParse(SyntaxTypes.UNARY_EXP);
-                postParseError(checkpoint, root);
-                return null;
-            }
-            root.insertEndChild(unaryExp);
-            return root;
-        }
-
-        // UnaryExp -> Ident '(' FuncAParams ')'
-        if (getLookahead().is(TokenTypes.IDENTIFIER) && getLookahead(2).is(TokenTypes.LEFT_PARENTHESIS)) {
-            var functionCall = parseFunctionCall();
-            if (functionCall == null) {
-                logFailedToParse(SyntaxTypes.FUNC_CALL);
-                postParseError(checkpoint, root);
-                return null;
-            }
-            root.insertEndChild(functionCall);
-            return root;
-        }
-
-        // UnaryExp -> PrimaryExp
-        var primaryExp = parsePrimaryExp();
-        if (primaryExp == null) {
-            logFailedToParse(SyntaxTypes.PRIMARY_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(primaryExp);
-
-        return root;
-    }
-
     private SyntaxNode parseUnaryOp() {
         var root = tree.newNonTerminalNode(SyntaxTypes.UNARY_OP);
 
@@ -1808,58 +1730,6 @@ public class ResilientSyntacticParser implements ISyntacticParser {
         return null;
     }
 
-    private SyntaxNode parsePrimaryExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.PRIMARY_EXP);
-
-        // PrimaryExp -> Number
-        if (getLookahead().is(TokenTypes.INTEGER)) {
-            var number = parseNumber();
-            if (number == null) {
-                logFailedToParse(SyntaxTypes.NUMBER);
-                postParseError(checkpoint, root);
-                return null;
-            }
-            root.insertEndChild(number);
-            return root;
-        }
-
-        // PrimaryExp -> '(' Exp ')'
-        if (getLookahead().is(TokenTypes.LEFT_PARENTHESIS)) {
-            // skip '('
-            root.insertEndChild(tree.newTerminalNode(getNext()));
-
-            var exp = parseExp();
-            if (exp == null) {
-                logFailedToParse(SyntaxTypes.EXP);
-                postParseError(checkpoint, root);
-                return null;
-            }
-            root.insertEndChild(exp);
-
-            // ')'
-            if (!getLookahead().is(TokenTypes.RIGHT_PARENTHESIS)) {
-                logExpectAfter(TokenTypes.RIGHT_PARENTHESIS);
-                recoverFromMissingToken(root, TokenTypes.RIGHT_PARENTHESIS);
-            } else {
-                root.insertEndChild(tree.newTerminalNode(getNext()));
-            }
-
-            return root;
-        }
-
-        // PrimaryExp -> LVal
-        var lVal = parseLVal();
-        if (lVal != null) {
-            root.insertEndChild(lVal);
-            return root;
-        }
-
-        log(LogLevel.ERROR, "PrimaryExp does not match any production");
-
-        return null;
-    }
-
     private SyntaxNode parseFunctionCall() {
         int checkpoint = lexicalParser.setCheckPoint();
         var root = tree.newNonTerminalNode(SyntaxTypes.FUNC_CALL);
@@ -1917,230 +1787,251 @@ public class ResilientSyntacticParser implements ISyntacticParser {
     }
 
     private SyntaxNode parseOrExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.OR_EXP);
-
-        var andExp = parseAndExp();
-        if (andExp == null) {
-            logFailedToParse(SyntaxTypes.AND_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(andExp);
-
-        var orExpAux = parseOrExpAux();
-        if (orExpAux == null) {
-            logFailedToParse(SyntaxTypes.OR_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!orExpAux.isEpsilon()) {
-            root.insertEndChild(orExpAux);
-        }
-
-        return root;
+        return parseExpression(new ExpFrame(ExpRules.BINARY, OR_EXP_LEVEL));
     }
 
-    private SyntaxNode parseOrExpAux() {
-        if (!getLookahead().is(OR_EXP_AUX_FIRST)) {
-            return tree.newEpsilonNode();
-        }
-
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.OR_EXP);
-
-        // '||'
-        root.insertEndChild(tree.newTerminalNode(getNext()));
-
-        var andExp = parseAndExp();
-        if (andExp == null) {
-            logFailedToParse(SyntaxTypes.AND_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(andExp);
+    private SyntaxNode parseAddExp() {
+        return parseExpression(new ExpFrame(ExpRules.BINARY, ADD_EXP_LEVEL));
+    }
 
-        var orExpAux = parseOrExpAux();
-        if (orExpAux == null) {
-            logFailedToParse(SyntaxTypes.OR_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!orExpAux.isEpsilon()) {
-            root.insertEndChild(orExpAux);
+    /*
+     * Expressions can nest deeply through parentheses and unary operators,
+     * so Exp, the binary levels, UnaryExp and PrimaryExp are parsed with an
+     * explicit stack instead of recursion. Each frame is a rule, which is
+     * resumed with the result of the rule it calls.
+     */
+    private enum ExpRules {
+        EXP,
+        BINARY,
+        UNARY,
+        PRIMARY
+    }
+
+    private static class ExpFrame {
+        final ExpRules rule;
+        // Precedence level of binary expressions.
+        final int level;
+        int state = 0;
+        int checkpoint;
+        SyntaxNode root;
+
+        ExpFrame(ExpRules rule, int level) {
+            this.rule = rule;
+            this.level = level;
+        }
+    }
+
+    private SyntaxNode parseExpression(ExpFrame entry) {
+        ArrayList<ExpFrame> stack = new ArrayList<>();
+        stack.add(entry);
+        SyntaxNode result = null;
+        while (true) {
+            var frame = stack.get(stack.size() - 1);
+            var callee = switch (frame.rule) {
+                case EXP -> stepExp(frame, result);
+                case BINARY -> stepBinaryExp(frame, result);
+                case UNARY -> stepUnaryExp(frame, result);
+                case PRIMARY -> stepPrimaryExp(frame, result);
+            };
+            if (callee != null) {
+                stack.add(callee);
+                result = null;
+            } else {
+                // The frame is done, with the result in its root.
+                stack.remove(stack.size() - 1);
+                result = frame.root;
+                if (stack.isEmpty()) {
+                    return result;
+                }
+            }
         }
-
-        return root;
     }
 
-    private SyntaxNode parseAndExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.AND_EXP);
+    /**
+     * Mark the frame as failed.
+     */
+    private ExpFrame failFrame(ExpFrame frame) {
+        postParseError(frame.checkpoint, frame.root);
+        frame.root = null;
+        return null;
+    }
 
-        var eqExp = parseEqExp();
-        if (eqExp == null) {
-            logFailedToParse(SyntaxTypes.EQ_EXP);
-            postParseError(checkpoint, root);
-            return null;
+    // Exp -> AddExp
+    private ExpFrame stepExp(ExpFrame frame, SyntaxNode result) {
+        if (frame.state == 0) {
+            frame.checkpoint = lexicalParser.setCheckPoint();
+            frame.root = tree.newNonTerminalNode(SyntaxTypes.EXP);
+            frame.state = 1;
+            return new ExpFrame(ExpRules.BINARY, ADD_EXP_LEVEL);
         }
-        root.insertEndChild(eqExp);
 
-        var andExpAux = parseAndExpAux();
-        if (andExpAux == null) {
-            logFailedToParse(SyntaxTypes.AND_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!andExpAux.isEpsilon()) {
-            root.insertEndChild(andExpAux);
+        if (result == null) {
+            logFailedToParse(SyntaxTypes.ADD_EXP);
+            return failFrame(frame);
         }
+        frame.root.insertEndChild(result);
 
-        return root;
+        return null;
     }
 
-    private SyntaxNode parseAndExpAux() {
-        if (!getLookahead().is(AND_EXP_AUX_FIRST)) {
-            return tree.newEpsilonNode();
+    /**
+     * Parse binary expressions by precedence climbing. Operators of the
+     * same level are folded to the left as they come, e.g. a - b + c gives
+     * AddExp(AddExp(AddExp(a) - b) + c), so no transform is needed later.
+     */
+    private ExpFrame stepBinaryExp(ExpFrame frame, SyntaxNode result) {
+        int level = frame.level;
+        var type = BINARY_EXP_TYPES[level];
+
+        switch (frame.state) {
+            case 0 -> {
+                frame.checkpoint = lexicalParser.setCheckPoint();
+                frame.root = tree.newNonTerminalNode(type);
+                frame.state = 1;
+                return binaryOperandFrame(level);
+            }
+            case 1 -> {
+                if (result == null) {
+                    logFailedToParse(binaryOperandType(level));
+                    return failFrame(frame);
+                }
+            }
+            default -> {
+                if (result == null) {
+                    logFailedToParse(binaryOperandType(level));
+                    logFailedToParse(type);
+                    return failFrame(frame);
+                }
+            }
         }
+        frame.root.insertEndChild(result);
 
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.AND_EXP);
+        if (getLookahead().is(BINARY_EXP_OPERATORS.get(level))) {
+            var node = tree.newNonTerminalNode(type);
+            node.insertEndChild(frame.root);
+            frame.root = node;
 
-        // '&&'
-        root.insertEndChild(tree.newTerminalNode(getNext()));
+            // operator
+            frame.root.insertEndChild(tree.newTerminalNode(getNext()));
 
-        var eqExp = parseEqExp();
-        if (eqExp == null) {
-            logFailedToParse(SyntaxTypes.EQ_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(eqExp);
-
-        var andExpAux = parseAndExpAux();
-        if (andExpAux == null) {
-            logFailedToParse(SyntaxTypes.AND_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!andExpAux.isEpsilon()) {
-            root.insertEndChild(andExpAux);
+            frame.state = 2;
+            return binaryOperandFrame(level);
         }
 
-        return root;
+        return null;
     }
 
-    private SyntaxNode parseEqExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.EQ_EXP);
-
-        var relExp = parseRelExp();
-        if (relExp == null) {
-            logFailedToParse(SyntaxTypes.REL_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(relExp);
-
-        var eqExpAux = parseEqExpAux();
-        if (eqExpAux == null) {
-            logFailedToParse(SyntaxTypes.EQ_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!eqExpAux.isEpsilon()) {
-            root.insertEndChild(eqExpAux);
+    private static ExpFrame binaryOperandFrame(int level) {
+        if (level + 1 < BINARY_EXP_TYPES.length) {
+            return new ExpFrame(ExpRules.BINARY, level + 1);
         }
-
-        return root;
+        return new ExpFrame(ExpRules.UNARY, 0);
     }
 
-    private SyntaxNode parseEqExpAux() {
-        if (!getLookahead().is(EQ_EXP_AUX_FIRST)) {
-            return tree.newEpsilonNode();
+    private static SyntaxTypes binaryOperandType(int level) {
+        if (level + 1 < BINARY_EXP_TYPES.length) {
+            return BINARY_EXP_TYPES[level + 1];
         }
+        return SyntaxTypes.UNARY_EXP;
+    }
 
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.EQ_EXP);
+    private ExpFrame stepUnaryExp(ExpFrame frame, SyntaxNode result) {
+        switch (frame.state) {
+            case 0 -> {
+                frame.checkpoint = lexicalParser.setCheckPoint();
+                frame.root = tree.newNonTerminalNode(SyntaxTypes.UNARY_EXP);
 
-        // '==' or '!='
-        root.insertEndChild(tree.newTerminalNode(getNext()));
+                // UnaryExp -> UnaryOp UnaryExp
+                var unaryOp = parseUnaryOp();
+                if (unaryOp != null) {
+                    frame.root.insertEndChild(unaryOp);
+                    frame.state = 1;
+                    return new ExpFrame(ExpRules.UNARY, 0);
+                }
 
-        var relExp = parseRelExp();
-        if (relExp == null) {
-            logFailedToParse(SyntaxTypes.REL_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(relExp);
+                // UnaryExp -> Ident '(' FuncAParams ')'
+                if (getLookahead().is(TokenTypes.IDENTIFIER) && getLookahead(2).is(TokenTypes.LEFT_PARENTHESIS)) {
+                    var functionCall = parseFunctionCall();
+                    if (functionCall == null) {
+                        logFailedToParse(SyntaxTypes.FUNC_CALL);
+                        return failFrame(frame);
+                    }
+                    frame.root.insertEndChild(functionCall);
+                    return null;
+                }
 
-        var eqExpAux = parseEqExpAux();
-        if (eqExpAux == null) {
-            logFailedToParse(SyntaxTypes.EQ_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!eqExpAux.isEpsilon()) {
-            root.insertEndChild(eqExpAux);
+                // UnaryExp -> PrimaryExp
+                frame.state = 2;
+                return new ExpFrame(ExpRules.PRIMARY, 0);
+            }
+            case 1 -> {
+                if (result == null) {
+                    logFailedToParse(SyntaxTypes.UNARY_EXP);
+                    return failFrame(frame);
+                }
+            }
+            default -> {
+                if (result == null) {
+                    logFailedToParse(SyntaxTypes.PRIMARY_EXP);
+                    return failFrame(frame);
+                }
+            }
         }
+        frame.root.insertEndChild(result);
 
-        return root;
+        return null;
     }
 
-    private SyntaxNode parseRelExp() {
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.REL_EXP);
+    private ExpFrame stepPrimaryExp(ExpFrame frame, SyntaxNode result) {
+        if (frame.state == 0) {
+            frame.checkpoint = lexicalParser.setCheckPoint();
+            frame.root = tree.newNonTerminalNode(SyntaxTypes.PRIMARY_EXP);
 
-        var addExp = parseAddExp();
-        if (addExp == null) {
-            logFailedToParse(SyntaxTypes.ADD_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        root.insertEndChild(addExp);
-
-        var relExpAux = parseRelExpAux();
-        if (relExpAux == null) {
-            logFailedToParse(SyntaxTypes.REL_EXP);
-            postParseError(checkpoint, root);
-            return null;
-        }
-        if (!relExpAux.isEpsilon()) {
-            root.insertEndChild(relExpAux);
-        }
-
-        return root;
-    }
-
-    private SyntaxNode parseRelExpAux() {
-        if (!getLookahead().is(REL_EXP_AUX_FIRST)) {
-            return tree.newEpsilonNode();
-        }
+            // PrimaryExp -> Number
+            if (getLookahead().is(TokenTypes.INTEGER)) {
+                var number = parseNumber();
+                if (number == null) {
+                    logFailedToParse(SyntaxTypes.NUMBER);
+                    return failFrame(frame);
+                }
+                frame.root.insertEndChild(number);
+                return null;
+            }
 
-        int checkpoint = lexicalParser.setCheckPoint();
-        var root = tree.newNonTerminalNode(SyntaxTypes.REL_EXP);
+            // PrimaryExp -> '(' Exp ')'
+            if (getLookahead().is(TokenTypes.LEFT_PARENTHESIS)) {
+                // skip '('
+                frame.root.insertEndChild(tree.newTerminalNode(getNext()));
+                frame.state = 1;
+                return new ExpFrame(ExpRules.EXP, 0);
+            }
 
-        // '<' or '<=' or '>' or '>='
-        root.insertEndChild(tree.newTerminalNode(getNext()));
+            // PrimaryExp -> LVal
+            var lVal = parseLVal();
+            if (lVal != null) {
+                frame.root.insertEndChild(lVal);
+                return null;
+            }
 
-        var addExp = parseAddExp();
-        if (addExp == null) {
-            logFailedToParse(SyntaxTypes.ADD_EXP);
-            postParseError(checkpoint, root);
+            log(LogLevel.ERROR, "PrimaryExp does not match any production");
+            frame.root = null;
             return null;
         }
-        root.insertEndChild(addExp);
 
-        var relExpAux = parseRelExpAux();
-        if (relExpAux == null) {
-            logFailedToParse(SyntaxTypes.REL_EXP);
-            postParseError(checkpoint, root);
-            return null;
+        if (result == null) {
+            logFailedToParse(SyntaxTypes.EXP);
+            return failFrame(frame);
         }
-        if (!relExpAux.isEpsilon()) {
-            root.insertEndChild(relExpAux);
+        frame.root.insertEndChild(result);
+
+        // ')'
+        if (!getLookahead().is(TokenTypes.RIGHT_PARENTHESIS)) {
+            logExpectAfter(TokenTypes.RIGHT_PARENTHESIS);
+            recoverFromMissingToken(frame.root, TokenTypes.RIGHT_PARENTHESIS);
+        } else {
+            frame.root.insertEndChild(tree.newTerminalNode(getNext()));
         }
 
-        return root;
+        return null;
     }
-}
\ No newline at end of file
+}
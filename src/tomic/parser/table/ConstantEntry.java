@@ -6,15 +6,14 @@
 
 package tomic.parser.table;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 public class ConstantEntry extends SymbolTableEntry {
     private final SymbolValueTypes type;
-    private final ArrayList<Integer> dimensions;
-    private final ArrayList<Integer> values;
+    private final int[] dimensions;
+    private final int[] values;
 
-    private ConstantEntry(String name, SymbolValueTypes type, ArrayList<Integer> dimensions, ArrayList<Integer> values) {
+    private ConstantEntry(String name, SymbolValueTypes type, int[] dimensions, int[] values) {
         super(name);
         this.type = type;
         this.dimensions = dimensions;
@@ -32,7 +31,7 @@ public class ConstantEntry extends SymbolTableEntry {
 
 
     public int getDimension() {
-        return dimensions.size();
+        return dimensions.length;
     }
 
     public boolean isInteger() {
@@ -41,29 +40,32 @@ public class ConstantEntry extends SymbolTableEntry {
 
 
     public int getValue() {
-        return values.get(0);
+        return values[0];
     }
 
-    public int getValue(List<Integer> dims) {
-        if (dims.size() != dimensions.size()) {
+    public int getValue(int[] dims) {
+        if (dims.length != dimensions.length) {
             throw new IllegalArgumentException("Dimension mismatch");
         }
 
         int index = 0;
         int size = 1;
-        for (int i = dims.size() - 1; i >= 0; i--) {
-            index += dims.get(i) * size;
+        for (int i = dims.length - 1; i >= 0; i--) {
+            index += dims[i] * size;
             size *= getSize(i);
         }
 
-        return values.get(index);
+        return values[index];
     }
 
     public int getSize(int dim) {
-        return dimensions.get(dim);
+        return dimensions[dim];
     }
 
-    public ArrayList<Integer> getSizes() {
+    /**
+     * Get the sizes of all dimensions, do not modify it.
+     */
+    public int[] getSizes() {
         return dimensions;
     }
 
@@ -74,8 +76,8 @@ public class ConstantEntry extends SymbolTableEntry {
     public static class Builder {
         private final String name;
         private SymbolValueTypes type;
-        private final ArrayList<Integer> dimensions = new ArrayList<>();
-        private final ArrayList<Integer> values = new ArrayList<>();
+        private int[] dimensions = new int[0];
+        private int[] values = new int[0];
 
         public Builder(String name) {
             this.name = name;
@@ -87,17 +89,21 @@ public class ConstantEntry extends SymbolTableEntry {
         }
 
         public Builder addDimension(int size) {
-            dimensions.add(size);
+            dimensions = Arrays.copyOf(dimensions, dimensions.length + 1);
+            dimensions[dimensions.length - 1] = size;
             return this;
         }
 
         public Builder setValue(int value) {
-            values.add(value);
+            values = new int[]{ value };
             return this;
         }
 
-        public Builder setValues(List<Integer> values) {
-            this.values.addAll(values);
+        /**
+         * Set all values in row-major order, the array is taken as is.
+         */
+        public Builder setValues(int[] values) {
+            this.values = values;
             return this;
         }
 
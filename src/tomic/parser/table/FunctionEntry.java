@@ -7,7 +7,6 @@
 package tomic.parser.table;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class FunctionEntry extends SymbolTableEntry {
     private final SymbolValueTypes type;
@@ -47,19 +46,19 @@ public class FunctionEntry extends SymbolTableEntry {
     public static class ParamEntry {
         public SymbolValueTypes type;
         public String name;
-        public final ArrayList<Integer> dimensions;
+        public final int[] dimensions;
 
-        public ParamEntry(SymbolValueTypes type, String name, ArrayList<Integer> dimensions) {
+        public ParamEntry(SymbolValueTypes type, String name, int[] dimensions) {
             this.type = type;
             this.name = name;
             this.dimensions = dimensions;
         }
 
         public int getDimension() {
-            return dimensions.size();
+            return dimensions.length;
         }
 
-        public List<Integer> getSizes() {
+        public int[] getSizes() {
             return dimensions;
         }
     }
@@ -78,14 +77,13 @@ public class FunctionEntry extends SymbolTableEntry {
             return this;
         }
 
-        public Builder addParam(SymbolValueTypes type, String name, List<Integer> dims) {
-            ArrayList<Integer> dimensions = new ArrayList<>(dims);
-            params.add(new ParamEntry(type, name, dimensions));
+        public Builder addParam(SymbolValueTypes type, String name, int[] dims) {
+            params.add(new ParamEntry(type, name, dims.clone()));
             return this;
         }
 
         public Builder addParam(SymbolValueTypes type, String name) {
-            params.add(new ParamEntry(type, name, new ArrayList<>()));
+            params.add(new ParamEntry(type, name, new int[0]));
             return this;
         }
 
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) Tony's Studio 2018 - 2023. All rights reserved.
+ *
+ *   For BUAA 2023 Compiler Technology
+ */
+
+package tomic.parser.table;
+
+import tomic.lexer.token.impl.IdentifierInterner;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Symbol table for a single pass over nested scopes. Names are given by
+ * the interned id of their identifier token, which indexes a stack of
+ * visible entries, so a lookup is one array access no matter how deep
+ * the scope is. Entries added in a scope are kept in an undo log, and
+ * removed when the scope exits.
+ * <p>
+ * Tokens inserted by error recovery have no id, their names are interned
+ * by the table instead.
+ * <p>
+ * Unlike {@link SymbolTableBlock}, the scopes are not kept after exit.
+ */
+public class ScopedSymbolTable {
+    // Names of tokens without an id.
+    private final IdentifierInterner interner = new IdentifierInterner();
+    // Lookup of names not in this table, e.g. globals kept elsewhere.
+    private final Function<String, SymbolTableEntry> outer;
+
+    // Innermost binding of each token id, and of each name without one.
+    private Binding[] bindings = new Binding[64];
+    private Binding[] unnamed = new Binding[4];
+
+    // Keys added, and where each scope starts in it. Keys of names
+    // without a token id are complemented.
+    private int[] undoLog = new int[64];
+    private int undoSize = 0;
+    private int[] scopeStarts = new int[16];
+    private int depth = 0;
+
+    private static class Binding {
+        final SymbolTableEntry entry;
+        final int depth;
+        final Binding shadowed;
+
+        Binding(SymbolTableEntry entry, int depth, Binding shadowed) {
+            this.entry = entry;
+            this.depth = depth;
+            this.shadowed = shadowed;
+        }
+    }
+
+    public ScopedSymbolTable() {
+        this(null);
+    }
+
+    /**
+     * @param outer lookup of enclosing entries that are not added to this
+     *              table, they are never taken as local
+     */
+    public ScopedSymbolTable(Function<String, SymbolTableEntry> outer) {
+        this.outer = outer;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void enterScope() {
+        if (depth == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+        }
+        scopeStarts[depth++] = undoSize;
+    }
+
+    /**
+     * Exit the current scope, entries added in it are no longer visible.
+     */
+    public void exitScope() {
+        int start = scopeStarts[--depth];
+        while (undoSize > start) {
+            int key = undoLog[--undoSize];
+            set(key, get(key).shadowed);
+        }
+    }
+
+    /**
+     * Add an entry to the current scope. It shadows entries of the same
+     * name in outer scopes.
+     *
+     * @param id interned id of the identifier token that names the entry
+     */
+    public void addEntry(SymbolTableEntry entry, int id) {
+        int key = (id >= 0) ? id : ~interner.intern(entry.getName());
+        set(key, new Binding(entry, depth, get(key)));
+
+        if (undoSize == undoLog.length) {
+            undoLog = Arrays.copyOf(undoLog, undoSize * 2);
+        }
+        undoLog[undoSize++] = key;
+    }
+
+    /**
+     * Find the visible entry of the given name.
+     *
+     * @param id interned id of the identifier token, -1 if it has none
+     */
+    public SymbolTableEntry findEntry(String name, int id) {
+        var binding = find(name, id);
+        if (binding != null) {
+            return binding.entry;
+        }
+        return (outer == null) ? null : outer.apply(name);
+    }
+
+    /**
+     * Find the entry of the given name in the current scope only.
+     */
+    public SymbolTableEntry findLocalEntry(String name, int id) {
+        var binding = find(name, id);
+        return (binding == null || binding.depth != depth) ? null : binding.entry;
+    }
+
+    private Binding find(String name, int id) {
+        if (id >= 0) {
+            return get(id);
+        }
+        int local = interner.find(name);
+        return (local < 0) ? null : get(~local);
+    }
+
+    private Binding get(int key) {
+        if (key >= 0) {
+            return (key < bindings.length) ? bindings[key] : null;
+        }
+        return (~key < unnamed.length) ? unnamed[~key] : null;
+    }
+
+    private void set(int key, Binding binding) {
+        if (key >= 0) {
+            if (key >= bindings.length) {
+                bindings = Arrays.copyOf(bindings, Math.max(bindings.length * 2, key + 1));
+            }
+            bindings[key] = binding;
+        } else {
+            if (~key >= unnamed.length) {
+                unnamed = Arrays.copyOf(unnamed, Math.max(unnamed.length * 2, ~key + 1));
+            }
+            unnamed[~key] = binding;
+        }
+    }
+}
@@ -6,30 +6,59 @@
 
 package tomic.parser.table;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 public class SymbolTable {
-    private static int nextId;
-    private final Map<Integer, SymbolTableBlock> blocks;
+    // Block ids are dense, so blocks are indexed by them directly.
+    private SymbolTableBlock[] blocks;
+    private int nextId;
 
     public SymbolTable() {
-        blocks = new HashMap<>();
+        blocks = new SymbolTableBlock[16];
+        nextId = 0;
     }
 
     public SymbolTableBlock newRoot() {
-        var block = new SymbolTableBlock(nextId++, this, null);
-        blocks.put(block.getId(), block);
-        return block;
+        return addBlock(new SymbolTableBlock(nextId++, this, null));
     }
 
     public SymbolTableBlock newBlock(SymbolTableBlock parent) {
-        var block = new SymbolTableBlock(nextId++, this, parent);
-        blocks.put(block.getId(), block);
+        return addBlock(new SymbolTableBlock(nextId++, this, parent));
+    }
+
+    /**
+     * Reserve ids for blocks that are created later with
+     * {@link #newBlock(SymbolTableBlock, int)}, possibly on other threads.
+     * @return the first reserved id
+     */
+    public int reserveBlocks(int count) {
+        int first = nextId;
+        nextId += count;
+        if (nextId > blocks.length) {
+            blocks = Arrays.copyOf(blocks, Math.max(blocks.length * 2, nextId));
+        }
+        return first;
+    }
+
+    /**
+     * Create a block with a reserved id. Blocks of different ids can be
+     * created concurrently.
+     */
+    public SymbolTableBlock newBlock(SymbolTableBlock parent, int id) {
+        var block = new SymbolTableBlock(id, this, parent);
+        blocks[id] = block;
         return block;
     }
 
     public SymbolTableBlock getBlock(int id) {
-        return blocks.getOrDefault(id, null);
+        return (id >= 0 && id < nextId) ? blocks[id] : null;
+    }
+
+    private SymbolTableBlock addBlock(SymbolTableBlock block) {
+        if (block.getId() >= blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        }
+        blocks[block.getId()] = block;
+        return block;
     }
 }
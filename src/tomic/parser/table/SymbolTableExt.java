@@ -7,6 +7,7 @@
 package tomic.parser.table;
 
 import tomic.parser.ast.AstExt;
+import tomic.parser.ast.SyntaxAttributes;
 import tomic.parser.ast.SyntaxNode;
 import tomic.parser.ast.SyntaxTypes;
 
@@ -27,11 +28,10 @@ public class SymbolTableExt {
 
         var params = AstExt.getDirectChildNodes(funcParams, SyntaxTypes.FUNC_FPARAM);
         for (var param : params) {
-            int dim = param.getIntAttribute("dim");
-            var type = SymbolValueTypes.values()[param.getIntAttribute("type")];
-            var builder = VariableEntry.builder(param.getAttribute("name")).setType(type);
-            var sizes = AstExt.deserializeArray(param.getAttribute("sizes"));
-            for (var size : sizes) {
+            int dim = param.getIntAttribute(SyntaxAttributes.DIM);
+            var type = SymbolValueTypes.values()[param.getIntAttribute(SyntaxAttributes.TYPE)];
+            var builder = VariableEntry.builder(param.getAttribute(SyntaxAttributes.NAME)).setType(type);
+            for (int size : param.getArrayAttribute(SyntaxAttributes.SIZES)) {
                 builder.addDimension(size);
             }
             entries.add(new ParamEntryPair(param, builder.build()));
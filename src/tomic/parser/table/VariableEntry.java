@@ -6,13 +6,13 @@
 
 package tomic.parser.table;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 public class VariableEntry extends SymbolTableEntry {
     private SymbolValueTypes type;
-    private final ArrayList<Integer> dimensions;
+    private final int[] dimensions;
 
-    private VariableEntry(String name, SymbolValueTypes type, ArrayList<Integer> dimensions) {
+    private VariableEntry(String name, SymbolValueTypes type, int[] dimensions) {
         super(name);
         this.type = type;
         this.dimensions = dimensions;
@@ -28,7 +28,7 @@ public class VariableEntry extends SymbolTableEntry {
     }
 
     public int getDimension() {
-        return dimensions.size();
+        return dimensions.length;
     }
 
     public boolean isInteger() {
@@ -36,10 +36,13 @@ public class VariableEntry extends SymbolTableEntry {
     }
 
     public int getSize(int dim) {
-        return dimensions.get(dim);
+        return dimensions[dim];
     }
 
-    public ArrayList<Integer> getSizes() {
+    /**
+     * Get the sizes of all dimensions, do not modify it.
+     */
+    public int[] getSizes() {
         return dimensions;
     }
 
@@ -50,7 +53,7 @@ public class VariableEntry extends SymbolTableEntry {
     public static class Builder {
         private final String name;
         private SymbolValueTypes type;
-        private final ArrayList<Integer> dimensions = new ArrayList<>();
+        private int[] dimensions = new int[0];
 
         public Builder(String name) {
             this.name = name;
@@ -62,7 +65,8 @@ public class VariableEntry extends SymbolTableEntry {
         }
 
         public Builder addDimension(int size) {
-            dimensions.add(size);
+            dimensions = Arrays.copyOf(dimensions, dimensions.length + 1);
+            dimensions[dimensions.length - 1] = size;
             return this;
         }
 
@@ -0,0 +1,70 @@
+import lib.twio.TwioBufferReader;
+import lib.twio.TwioBufferWriter;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.llvm.asm.impl.OptimizedAsmGenerator;
+import tomic.llvm.asm.impl.VerboseAsmPrinter;
+import tomic.llvm.pass.PassManager;
+import tomic.llvm.pass.impl.provider.OptimizationPassProvider;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.impl.DefaultSemanticAnalyzer;
+import tomic.parser.impl.ResilientSyntacticParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants are shared, so expressions with the same operands swapped
+ * must only be combined if the operator is commutative.
+ */
+public class CombineCommonExpressionTest {
+    public static void main(String[] args) throws IOException {
+        String source = """
+                int main() {
+                    int x;
+                    x = getint();
+                    printf("%d %d %d %d\\n", x - 1, 1 - x, x / 2, 2 / x);
+                    printf("%d %d %d %d\\n", x % 3, 3 % x, x + 4, 4 + x);
+                    printf("%d %d\\n", x * 5, 5 * x);
+                    return 0;
+                }
+                """;
+        String ir = emit(source);
+
+        expect(ir, "sub nsw i32 %2, 1", 1);
+        expect(ir, "sub nsw i32 1, %2", 1);
+        expect(ir, "sdiv i32 %2, 2", 1);
+        expect(ir, "sdiv i32 2, %2", 1);
+        expect(ir, "srem i32 %2, 3", 1);
+        expect(ir, "srem i32 3, %2", 1);
+        expect(ir, "add nsw i32 ", 1);
+        expect(ir, "mul nsw i32 ", 1);
+
+        System.out.println("all passed");
+    }
+
+    private static void expect(String ir, String pattern, int count) {
+        int actual = ir.split(java.util.regex.Pattern.quote(pattern), -1).length - 1;
+        if (actual != count) {
+            throw new IllegalStateException("Expected " + count + " of '" + pattern + "', got " + actual + "\n" + ir);
+        }
+    }
+
+    private static String emit(String source) throws IOException {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), new DumbErrorLogger(), new DumbLogger());
+        var parser = new ResilientSyntacticParser(lexicalParser, mapper, new CompleteSyntaxMapper(), new DumbErrorLogger(), new DumbLogger());
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        var tree = parser.parse();
+        var table = new DefaultSemanticAnalyzer(new DumbErrorLogger(), new DumbLogger()).analyze(tree);
+        var module = new OptimizedAsmGenerator().generate(tree, table, "test");
+        new PassManager(new OptimizationPassProvider(), new DumbLogger()).run(module);
+
+        var writer = new TwioBufferWriter();
+        new VerboseAsmPrinter().print(module, writer);
+        return new String(writer.yield().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+import lib.twio.TwioBufferReader;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.impl.DefaultSemanticAnalyzer;
+import tomic.parser.impl.ResilientSyntacticParser;
+
+public class ConstTableBenchmark {
+    public static void main(String[] args) {
+        int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int columns = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+        String source = generate(rows, columns);
+
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            new DefaultSemanticAnalyzer(new DumbErrorLogger(), new DumbLogger()).analyze(parse(source));
+        }
+
+        final int rounds = 5;
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            var tree = parse(source);
+            long start = System.nanoTime();
+            new DefaultSemanticAnalyzer(new DumbErrorLogger(), new DumbLogger()).analyze(tree);
+            total += System.nanoTime() - start;
+        }
+
+        System.out.printf("const int table[%d][%d]: semantic analysis %.2f ms on average%n",
+                rows, columns, total / 1e6 / rounds);
+    }
+
+    private static SyntaxTree parse(String source) {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), new DumbErrorLogger(), new DumbLogger());
+        var parser = new ResilientSyntacticParser(lexicalParser, mapper, new CompleteSyntaxMapper(), new DumbErrorLogger(), new DumbLogger());
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        return parser.parse();
+    }
+
+    private static String generate(int rows, int columns) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("const int table[").append(rows).append("][").append(columns).append("] = {\n");
+        for (int i = 0; i < rows; i++) {
+            builder.append("    {");
+            for (int j = 0; j < columns; j++) {
+                if (j != 0) {
+                    builder.append(", ");
+                }
+                builder.append((i * 31 + j * 7) % 1000);
+            }
+            builder.append((i == rows - 1) ? "}\n" : "},\n");
+        }
+        builder.append("};\n");
+        builder.append("int main() {\n");
+        builder.append("    printf(\"%d\\n\", table[").append(rows - 1).append("][").append(columns - 1).append("]);\n");
+        builder.append("    return 0;\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+}
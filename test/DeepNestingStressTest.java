@@ -0,0 +1,92 @@
+import lib.twio.TwioBufferReader;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.llvm.asm.impl.OptimizedAsmGenerator;
+import tomic.llvm.asm.impl.StandardAsmGenerator;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.IAstVisitor;
+import tomic.parser.ast.SyntaxNode;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.impl.DefaultSemanticAnalyzer;
+import tomic.parser.impl.ResilientSyntacticParser;
+
+/**
+ * Parse, analyze and generate LLVM IR for expressions nested 100k levels
+ * deep, which should work with the default thread stack size.
+ */
+public class DeepNestingStressTest {
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+
+        run("parentheses", depth, "(".repeat(depth) + "1" + ")".repeat(depth));
+        run("unary", depth, "-".repeat(depth) + "1");
+        run("left-leaning", depth, "1" + " + 1".repeat(depth));
+        run("mixed", depth, "(-".repeat(depth) + "1" + ")".repeat(depth));
+
+        System.out.println("all passed");
+    }
+
+    private static void run(String name, int depth, String exp) {
+        String source = "int main() {\n    int a = " + exp + ";\n    return 0;\n}\n";
+
+        long start = System.nanoTime();
+        var errorLogger = new DumbErrorLogger();
+        var tree = parse(source, errorLogger);
+        if (tree == null || errorLogger.count() > 0) {
+            throw new IllegalStateException(name + ": failed to parse");
+        }
+
+        int[] maxDepth = { 0 };
+        int[] current = { 0 };
+        tree.accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                maxDepth[0] = Math.max(maxDepth[0], ++current[0]);
+                return true;
+            }
+
+            @Override
+            public boolean visitExit(SyntaxNode node) {
+                current[0]--;
+                return true;
+            }
+        });
+        if (maxDepth[0] < depth) {
+            throw new IllegalStateException(name + ": tree is not nested as expected");
+        }
+
+        var table = new DefaultSemanticAnalyzer(errorLogger, new DumbLogger()).analyze(tree);
+        if (errorLogger.count() > 0) {
+            throw new IllegalStateException(name + ": semantic errors");
+        }
+
+        if (new StandardAsmGenerator().generate(tree, table, name).getMainFunction() == null
+                || new OptimizedAsmGenerator().generate(tree, table, name).getMainFunction() == null) {
+            throw new IllegalStateException(name + ": no IR generated");
+        }
+
+        tree.flatten();
+        int[] visits = { 0 };
+        tree.accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                visits[0]++;
+                return true;
+            }
+        });
+
+        System.out.printf("%-12s depth %8d, %8d nodes, %8.2f ms%n",
+                name, maxDepth[0], visits[0], (System.nanoTime() - start) / 1e6);
+    }
+
+    private static SyntaxTree parse(String source, DumbErrorLogger errorLogger) {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), errorLogger, new DumbLogger());
+        var parser = new ResilientSyntacticParser(lexicalParser, mapper, new CompleteSyntaxMapper(), errorLogger, new DumbLogger());
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        return parser.parse();
+    }
+}
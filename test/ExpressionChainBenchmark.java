@@ -0,0 +1,103 @@
+import lib.twio.TwioBufferReader;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.IAstVisitor;
+import tomic.parser.ast.SyntaxNode;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.ast.trans.ExpressionChainTransformer;
+import tomic.parser.impl.DefaultSemanticAnalyzer;
+import tomic.parser.impl.ResilientSyntacticParser;
+
+public class ExpressionChainBenchmark {
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+        String source = generate(count);
+
+        var tree = parse(source);
+        int nodes = count(tree);
+        int expNodes = countExpressionNodes(tree);
+        long start = System.nanoTime();
+        new DefaultSemanticAnalyzer(new DumbErrorLogger(), new DumbLogger()).analyze(tree);
+        long full = System.nanoTime() - start;
+
+        tree = parse(source);
+        var transformer = new ExpressionChainTransformer();
+        transformer.transform(tree);
+        int compactNodes = count(tree);
+        int compactExpNodes = countExpressionNodes(tree);
+        start = System.nanoTime();
+        new DefaultSemanticAnalyzer(new DumbErrorLogger(), new DumbLogger()).analyze(tree);
+        long compact = System.nanoTime() - start;
+
+        if (nodes - compactNodes != transformer.getRemovedCount()) {
+            throw new IllegalStateException("Removed count mismatch");
+        }
+
+        System.out.printf("complete  %8d nodes %8d expression nodes, analysis %8.2f ms%n", nodes, expNodes, full / 1e6);
+        System.out.printf("compacted %8d nodes %8d expression nodes, analysis %8.2f ms%n", compactNodes, compactExpNodes, compact / 1e6);
+        System.out.printf("expression nodes reduced by %.2fx%n", (double) expNodes / compactExpNodes);
+    }
+
+    private static int count(SyntaxTree tree) {
+        int[] count = { 0 };
+        tree.accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                count[0]++;
+                return true;
+            }
+
+            @Override
+            public boolean visit(SyntaxNode node) {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    private static int countExpressionNodes(SyntaxTree tree) {
+        int[] count = { 0 };
+        tree.accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                switch (node.getType()) {
+                    case EXP, COND, OR_EXP, AND_EXP, EQ_EXP, REL_EXP, ADD_EXP, MUL_EXP,
+                            UNARY_EXP, UNARY_OP, PRIMARY_EXP, NUMBER, LVAL -> count[0]++;
+                    default -> {}
+                }
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    private static SyntaxTree parse(String source) {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), new DumbErrorLogger(), new DumbLogger());
+        var parser = new ResilientSyntacticParser(lexicalParser, mapper, new CompleteSyntaxMapper(), new DumbErrorLogger(), new DumbLogger());
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        return parser.parse();
+    }
+
+    // Expression-heavy code, mostly literals and variables.
+    private static String generate(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("int main() {\n");
+        builder.append("    int i = 1, j = 2, k = 3;\n");
+        for (int n = 0; n < count; n++) {
+            switch (n % 3) {
+                case 0 -> builder.append("    i = j + 1;\n");
+                case 1 -> builder.append("    if (i < 10 && j != k) j = k * 2 - i;\n");
+                default -> builder.append("    k = -i + (j % 3);\n");
+            }
+        }
+        builder.append("    return 0;\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,154 @@
+import lib.twio.TwioBufferReader;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.AstExt;
+import tomic.parser.ast.IAstVisitor;
+import tomic.parser.ast.SyntaxNode;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.SyntaxTypes;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.impl.DefaultSemanticAnalyzer;
+import tomic.parser.impl.ResilientSyntacticParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FlatSyntaxTreeTest {
+    private static final String SOURCE = """
+            const int N = 10;
+            int a[N][N];
+            int f(int x, int y[]) {
+                if (x > 0 && y[0] != 1) { return f(x - 1, y) + 1; }
+                return 0;
+            }
+            int main() {
+                int i;
+                for (i = 0; i < N; i = i + 1) {
+                    a[i][i] = f(i, a[i]) * (i + 2);
+                    if (i == 5) break;
+                }
+                printf("%d\\n", a[3][3]);
+                return 0;
+            }
+            """;
+
+    public static void main(String[] args) {
+        var tree = parse(SOURCE);
+        // Attributes to query.
+        new DefaultSemanticAnalyzer(new DumbErrorLogger(), new DumbLogger()).analyze(tree);
+
+        // Full traversal, then one that stops at the first Stmt.
+        var expected = trace(tree, null);
+        var expectedStop = trace(tree, SyntaxTypes.STMT);
+        var expectedQueries = query(tree);
+        var flat = tree.flatten();
+        check(flat != null && tree.getFlatTree() == flat, "tree is not flattened");
+        check(expected.equals(trace(tree, null)), "traversal order differs");
+        check(expectedStop.equals(trace(tree, SyntaxTypes.STMT)), "early exit differs");
+        check(expectedQueries.equals(query(tree)), "queries differ");
+
+        for (int i = 0; i < flat.size(); i++) {
+            var node = flat.getNode(i);
+            check(flat.indexOf(node) == i, "index mismatch at " + i);
+            check(flat.getType(i) == node.getType(), "type mismatch at " + i);
+            check(flat.getToken(i) == node.getToken(), "token mismatch at " + i);
+
+            int count = 0;
+            for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                check(node.childAt(count) == child, "child mismatch at " + i);
+                check(flat.getNode(flat.getChild(i, count)) == child, "indexed child mismatch at " + i);
+                count++;
+            }
+            check(node.getChildCount() == count, "child count mismatch at " + i);
+            check(flat.getChildCount(i) == count, "indexed child count mismatch at " + i);
+            check(node.childAt(count) == null && flat.getChild(i, count) == -1, "child past the end at " + i);
+        }
+
+        // Modification drops the flat view.
+        var root = tree.getRoot();
+        root.removeChild(root.getLastChild());
+        check(tree.getFlatTree() == null, "flat view not dropped");
+        int rootCount = 0;
+        for (var child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+            rootCount++;
+        }
+        check(root.getChildCount() == rootCount && root.childAt(rootCount) == null, "children after modification");
+
+        System.out.printf("%d nodes, %d visits, all passed%n", flat.size(), expected.size());
+    }
+
+    private static List<String> trace(SyntaxTree tree, SyntaxTypes stopAt) {
+        var events = new ArrayList<String>();
+        tree.accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                events.add("enter " + node.getType());
+                return true;
+            }
+
+            @Override
+            public boolean visitExit(SyntaxNode node) {
+                events.add("exit " + node.getType());
+                return node.getType() != stopAt;
+            }
+
+            @Override
+            public boolean visit(SyntaxNode node) {
+                events.add("visit " + (node.isTerminal() ? node.getToken().lexeme : node.getType()));
+                return true;
+            }
+        });
+        return events;
+    }
+
+    private static final SyntaxTypes[] QUERIED = {
+            SyntaxTypes.STMT, SyntaxTypes.EXP, SyntaxTypes.LVAL, SyntaxTypes.BLOCK_ITEM, SyntaxTypes.FUNC_DEF
+    };
+
+    // Results of the AstExt queries on every node, by identity.
+    private static List<Object> query(SyntaxTree tree) {
+        var nodes = new ArrayList<SyntaxNode>();
+        tree.getRoot().accept(new IAstVisitor() {
+            @Override
+            public boolean visitEnter(SyntaxNode node) {
+                nodes.add(node);
+                return true;
+            }
+        });
+
+        var results = new ArrayList<Object>();
+        for (var node : nodes) {
+            for (var type : QUERIED) {
+                results.add(AstExt.countDirectChildNode(node, type));
+                for (int index : new int[] { 1, 2, -1, -2 }) {
+                    results.add(AstExt.getDirectChildNode(node, type, index));
+                    results.add(AstExt.getChildNode(node, type, index));
+                }
+                results.add(AstExt.getDirectChildNodes(node, type));
+                results.add(AstExt.getChildNodes(node, type));
+            }
+            results.add(AstExt.getChildNodes(node, SyntaxTypes.LVAL, SyntaxTypes.NUMBER));
+            results.add(AstExt.hasAttribute(node, "det"));
+            results.add(AstExt.getSynthesizedAttribute(node, "type"));
+            results.add(AstExt.getSynthesizedIntAttribute(node, "value", -1));
+        }
+        return results;
+    }
+
+    private static SyntaxTree parse(String source) {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), new DumbErrorLogger(), new DumbLogger());
+        var parser = new ResilientSyntacticParser(lexicalParser, mapper, new CompleteSyntaxMapper(), new DumbErrorLogger(), new DumbLogger());
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        return parser.parse();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
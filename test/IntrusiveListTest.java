@@ -0,0 +1,60 @@
+import tomic.llvm.ir.LlvmContext;
+import tomic.llvm.ir.value.BasicBlock;
+import tomic.llvm.ir.value.inst.AllocaInst;
+import tomic.llvm.ir.value.inst.Instruction;
+
+import java.util.ArrayList;
+
+/**
+ * Instructions are inserted and removed in place, also while the block
+ * is being traversed.
+ */
+public class IntrusiveListTest {
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+        var context = new LlvmContext();
+        var block = new BasicBlock(context);
+
+        long start = System.nanoTime();
+        var anchor = new AllocaInst(context.getInt32Ty());
+        block.insertInstruction(anchor);
+        var all = new ArrayList<Instruction>();
+        for (int i = 0; i < count; i++) {
+            var inst = new AllocaInst(context.getInt32Ty());
+            if (i % 2 == 0) {
+                block.insertInstructionBefore(inst, anchor);
+            } else {
+                block.insertInstructionAfter(inst, anchor);
+            }
+            all.add(inst);
+        }
+        check(block.getInstructions().size() == count + 1, "size after insert");
+        check(block.getInstructions().getFirst() == all.get(0), "first");
+        check(block.getInstructions().getLast() == all.get(1), "last");
+
+        // Remove every other instruction while iterating.
+        int visited = 0;
+        for (var inst : block.getInstructions()) {
+            if (visited++ % 2 == 0) {
+                block.removeInstruction(inst);
+            }
+        }
+        check(visited == count + 1, "all visited");
+        check(block.getInstructions().size() == (count + 1) / 2, "size after remove");
+
+        // Move the rest to another block.
+        var other = new BasicBlock(context);
+        block.getInstructions().forEach(other::insertInstruction);
+        check(block.getInstructions().isEmpty() && other.getInstructions().size() == (count + 1) / 2, "moved");
+        check(other.getInstructions().getFirst().getParent() == other, "parent");
+        long time = System.nanoTime() - start;
+
+        System.out.printf("%d instructions in %.2f ms%n", count, time / 1e6);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
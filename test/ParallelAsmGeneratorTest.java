@@ -0,0 +1,125 @@
+import lib.twio.TwioBufferReader;
+import lib.twio.TwioBufferWriter;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.llvm.asm.IAsmGenerator;
+import tomic.llvm.asm.impl.OptimizedAsmGenerator;
+import tomic.llvm.asm.impl.StandardAsmGenerator;
+import tomic.llvm.asm.impl.VerboseAsmPrinter;
+import tomic.llvm.mips.impl.OptimizedMipsGenerator;
+import tomic.llvm.pass.PassManager;
+import tomic.llvm.pass.IPassProvider;
+import tomic.llvm.pass.impl.provider.BasicPassProvider;
+import tomic.llvm.pass.impl.provider.OptimizationPassProvider;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.impl.DefaultSemanticAnalyzer;
+import tomic.parser.impl.ResilientSyntacticParser;
+import tomic.parser.table.SymbolTable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Functions built and optimized concurrently must give the same LLVM IR
+ * as done in turn, both as generated and after passes. So must the MIPS
+ * generated from optimized IR.
+ */
+public class ParallelAsmGeneratorTest {
+    public static void main(String[] args) throws IOException {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+        String source = generate(count);
+        var pool = new ForkJoinPool(4);
+
+        try {
+            check("standard", source, pool, StandardAsmGenerator::new, () -> new StandardAsmGenerator(pool), BasicPassProvider::new);
+            check("optimized", source, pool, OptimizedAsmGenerator::new, () -> new OptimizedAsmGenerator(pool), OptimizationPassProvider::new);
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("all passed");
+    }
+
+    private static void check(String name, String source, ForkJoinPool pool, Supplier<IAsmGenerator> sequential, Supplier<IAsmGenerator> parallel,
+                              Supplier<IPassProvider> passes) throws IOException {
+        for (var provider : Arrays.asList(null, passes)) {
+            long start = System.nanoTime();
+            String expected = emit(source, sequential.get(), provider, null);
+            long sequentialTime = System.nanoTime() - start;
+
+            for (int round = 0; round < 5; round++) {
+                start = System.nanoTime();
+                String actual = emit(source, parallel.get(), provider, pool);
+                if (!expected.equals(actual)) {
+                    throw new IllegalStateException(name + ": output mismatch in round " + round);
+                }
+                if (round == 0) {
+                    System.out.printf("%-9s %-9s sequential %8.2f ms, parallel %8.2f ms%n",
+                            name, (provider == null) ? "raw" : "passes",
+                            sequentialTime / 1e6, (System.nanoTime() - start) / 1e6);
+                }
+            }
+        }
+    }
+
+    private static String emit(String source, IAsmGenerator generator, Supplier<IPassProvider> passes, ForkJoinPool pool) throws IOException {
+        var tree = parse(source);
+        SymbolTable table = new DefaultSemanticAnalyzer(new DumbErrorLogger(), new DumbLogger()).analyze(tree);
+        var module = generator.generate(tree, table, "test");
+        if (passes != null) {
+            new PassManager(passes.get(), new DumbLogger(), pool).run(module);
+        }
+
+        var writer = new TwioBufferWriter();
+        new VerboseAsmPrinter().print(module, writer);
+        if (passes != null && generator instanceof OptimizedAsmGenerator) {
+            new OptimizedMipsGenerator(pool).generate(module, writer);
+        }
+        return new String(writer.yield().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static SyntaxTree parse(String source) {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), new DumbErrorLogger(), new DumbLogger());
+        var parser = new ResilientSyntacticParser(lexicalParser, mapper, new CompleteSyntaxMapper(), new DumbErrorLogger(), new DumbLogger());
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        return parser.parse();
+    }
+
+    // Functions share globals and strings, and call earlier ones.
+    private static String generate(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("const int N = 4;\n");
+        builder.append("int g = 1;\n");
+        builder.append("int arr[N][2] = {{1, 2}, {3, 4}, {5, 6}, {7, 8}};\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("int f").append(i).append("(int a, int b[][2]) {\n");
+            builder.append("    int c[2] = {a, g};\n");
+            builder.append("    int i;\n");
+            builder.append("    for (i = 0; i < N; i = i + 1) {\n");
+            builder.append("        if (b[i][0] > a && i != 2) continue;\n");
+            builder.append("        c[i % 2] = c[i % 2] + b[i][1] * g;\n");
+            builder.append("        if (c[0] > 100) break;\n");
+            builder.append("    }\n");
+            builder.append("    g = g + c[1];\n");
+            if (i > 0) {
+                builder.append("    c[0] = c[0] + f").append(i - 1).append("(c[1] % 7, b);\n");
+            }
+            builder.append("    printf(\"f").append(i % 50).append(": %d, shared %d\\n\", c[0], g);\n");
+            builder.append("    return c[0] % 1000;\n");
+            builder.append("}\n");
+        }
+        builder.append("int main() {\n");
+        builder.append("    printf(\"%d\\n\", f").append(count - 1).append("(getint(), arr));\n");
+        builder.append("    return 0;\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+}
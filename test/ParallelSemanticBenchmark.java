@@ -0,0 +1,108 @@
+import lib.twio.TwioBufferReader;
+import lib.twio.ITwioWriter;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.ErrorTypes;
+import tomic.logger.error.IErrorLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.SyntaxTree;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.impl.DefaultSemanticAnalyzer;
+import tomic.parser.impl.ParallelSemanticAnalyzer;
+import tomic.parser.impl.ResilientSyntacticParser;
+
+/**
+ * Compare sequential and parallel semantic analysis on many functions,
+ * some of which have errors. Both must report the same errors.
+ */
+public class ParallelSemanticBenchmark {
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 4000;
+        String source = generate(count);
+
+        for (int round = 0; round < 3; round++) {
+            var tree = parse(source);
+            var sequential = new RecordingErrorLogger();
+            long start = System.nanoTime();
+            var table = new DefaultSemanticAnalyzer(sequential, new DumbLogger()).analyze(tree);
+            long sequentialTime = System.nanoTime() - start;
+
+            tree = parse(source);
+            var parallel = new RecordingErrorLogger();
+            start = System.nanoTime();
+            var parallelTable = new ParallelSemanticAnalyzer(parallel, new DumbLogger()).analyze(tree);
+            long parallelTime = System.nanoTime() - start;
+
+            if (!sequential.toString().equals(parallel.toString()) || sequential.count() == 0) {
+                throw new IllegalStateException("Errors mismatch");
+            }
+            if (table.getBlock(count * 2) == null || parallelTable.getBlock(count * 2) == null) {
+                throw new IllegalStateException("Blocks missing");
+            }
+
+            System.out.printf("sequential %8.2f ms, parallel %8.2f ms, %d errors%n",
+                    sequentialTime / 1e6, parallelTime / 1e6, sequential.count());
+        }
+    }
+
+    // Keeps errors in the order they are logged.
+    private static class RecordingErrorLogger implements IErrorLogger {
+        private final StringBuilder builder = new StringBuilder();
+        private int count = 0;
+
+        @Override
+        public void log(int line, int column, ErrorTypes type, String message) {
+            builder.append(line).append(':').append(column).append(' ').append(type).append(' ').append(message).append('\n');
+            count++;
+        }
+
+        @Override
+        public void dumps(ITwioWriter writer) {
+        }
+
+        @Override
+        public int count() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+
+    private static SyntaxTree parse(String source) {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), new DumbErrorLogger(), new DumbLogger());
+        var parser = new ResilientSyntacticParser(lexicalParser, mapper, new CompleteSyntaxMapper(), new DumbErrorLogger(), new DumbLogger());
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        return parser.parse();
+    }
+
+    // Each function has two blocks, every tenth calls a later one.
+    private static String generate(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("const int N = 10;\n");
+        builder.append("int g = 1;\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("int f").append(i).append("(int a, int b[]) {\n");
+            builder.append("    int c = a + N;\n");
+            builder.append("    for (c = 0; c < N; c = c + 1) {\n");
+            builder.append("        int d = b[c] * g;\n");
+            builder.append("        g = g + d;\n");
+            builder.append("    }\n");
+            if (i % 10 == 0) {
+                builder.append("    c = f").append(i + 1).append("(a, b);\n");
+            }
+            builder.append("    return c;\n");
+            builder.append("}\n");
+        }
+        builder.append("int main() {\n");
+        builder.append("    int b[2] = {1, 2};\n");
+        builder.append("    return f0(g, b);\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,76 @@
+import tomic.llvm.ir.LlvmContext;
+import tomic.llvm.ir.value.BasicBlock;
+import tomic.llvm.ir.value.Function;
+import tomic.llvm.ir.value.inst.AllocaInst;
+import tomic.llvm.ir.value.inst.Instruction;
+
+import java.util.ArrayList;
+
+/**
+ * Inserting or removing instructions and blocks through their intrusive
+ * lists renumbers the function on the next query.
+ */
+public class ProgramOrderTest {
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        var context = new LlvmContext();
+        var function = Function.newInstance(context.getInt32Ty(), "f");
+        var first = function.newBasicBlock();
+        var second = function.newBasicBlock();
+        var order = function.getProgramOrder();
+
+        var insts = new ArrayList<Instruction>();
+        for (int i = 0; i < count; i++) {
+            var inst = new AllocaInst(context.getInt32Ty());
+            (i < count / 2 ? first : second).insertInstruction(inst);
+            insts.add(inst);
+        }
+        long start = System.nanoTime();
+        expectOrder(insts, first, second);
+
+        // Insert at the front, every number after it moves.
+        var head = new AllocaInst(context.getInt32Ty());
+        first.insertInstructionFirst(head);
+        insts.add(0, head);
+        expectOrder(insts, first, second);
+
+        // Remove from the middle, the removed one is no longer numbered.
+        var removed = insts.remove(count / 4);
+        first.removeInstruction(removed);
+        check(order.ordinal(removed) == -1, "removed instruction");
+        expectOrder(insts, first, second);
+
+        // Move an instruction to another function.
+        var other = Function.newInstance(context.getInt32Ty(), "g").newBasicBlock();
+        var moved = insts.remove(insts.size() - 1);
+        second.removeInstruction(moved);
+        other.insertInstruction(moved);
+        check(order.ordinal(moved) == -1, "moved instruction");
+        check(moved.ordinal() == 0, "moved ordinal");
+        expectOrder(insts, first, second);
+
+        // Remove a block, the blocks after it move up.
+        function.removeBasicBlock(first);
+        check(order.ordinal(first) == -1 && second.getIndex() == 0, "removed block");
+        check(second.getInstructions().getFirst().ordinal() == 0, "ordinal after removed block");
+        long time = System.nanoTime() - start;
+
+        System.out.printf("%d instructions in %.2f ms%n", count, time / 1e6);
+    }
+
+    private static void expectOrder(ArrayList<Instruction> insts, BasicBlock first, BasicBlock second) {
+        check(first.getIndex() == 0 && second.getIndex() == 1, "block index");
+        int firstSize = first.getInstructions().size();
+        for (int i = 0; i < insts.size(); i++) {
+            var inst = insts.get(i);
+            check(inst.ordinal() == i, "ordinal of " + i);
+            check(inst.getIndex() == ((i < firstSize) ? i : i - firstSize), "index of " + i);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import tomic.lexer.token.impl.IdentifierInterner;
+import tomic.parser.table.ScopedSymbolTable;
+import tomic.parser.table.SymbolTable;
+import tomic.parser.table.SymbolTableBlock;
+import tomic.parser.table.SymbolValueTypes;
+import tomic.parser.table.VariableEntry;
+
+public class ScopedSymbolTableBenchmark {
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        int lookups = (args.length > 1) ? Integer.parseInt(args[1]) : 2000000;
+
+        // Ids as the lexer gives them to identifier tokens.
+        var interner = new IdentifierInterner();
+
+        // Globals in the root, one local in each nested block.
+        var table = new SymbolTable();
+        var scoped = new ScopedSymbolTable();
+        SymbolTableBlock block = table.newRoot();
+        scoped.enterScope();
+        for (int i = 0; i < 16; i++) {
+            var entry = VariableEntry.builder("g" + i).setType(SymbolValueTypes.INT).build();
+            block.addEntry(entry);
+            scoped.addEntry(entry, interner.intern(entry.getName()));
+        }
+        for (int i = 0; i < depth; i++) {
+            block = block.newChild();
+            scoped.enterScope();
+            var entry = VariableEntry.builder("l" + i).setType(SymbolValueTypes.INT).build();
+            block.addEntry(entry);
+            scoped.addEntry(entry, interner.intern(entry.getName()));
+        }
+
+        String[] names = new String[16];
+        int[] ids = new int[16];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "g" + i;
+            ids[i] = interner.intern(names[i]);
+        }
+
+        for (int i = 0; i < names.length; i++) {
+            if (block.findEntry(names[i]) != scoped.findEntry(names[i], ids[i])) {
+                throw new IllegalStateException("Mismatched entry for " + names[i]);
+            }
+        }
+
+        // warm up
+        runBlocks(block, names, lookups);
+        runScoped(scoped, names, ids, lookups);
+
+        long start = System.nanoTime();
+        int found = runBlocks(block, names, lookups);
+        long blockTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        found += runScoped(scoped, names, ids, lookups);
+        long scopedTime = System.nanoTime() - start;
+
+        System.out.printf("depth %d, %d global lookups (%d found)%n", depth, lookups, found);
+        System.out.printf("block chain   %8.2f ms%n", blockTime / 1e6);
+        System.out.printf("scoped table  %8.2f ms%n", scopedTime / 1e6);
+
+        // Names from tokens without an id, as inserted by error recovery.
+        scoped.enterScope();
+        var unnamed = VariableEntry.builder("").setType(SymbolValueTypes.INT).build();
+        scoped.addEntry(unnamed, -1);
+        if (scoped.findLocalEntry("", -1) != unnamed) {
+            throw new IllegalStateException("Entry without id not found");
+        }
+        scoped.exitScope();
+
+        for (int i = 0; i < depth; i++) {
+            scoped.exitScope();
+        }
+        if (scoped.findEntry("l0", interner.find("l0")) != null || scoped.findLocalEntry("g0", ids[0]) == null
+                || scoped.findEntry("", -1) != null) {
+            throw new IllegalStateException("Scope exit did not restore the globals");
+        }
+    }
+
+    private static int runBlocks(SymbolTableBlock block, String[] names, int lookups) {
+        int found = 0;
+        for (int i = 0; i < lookups; i++) {
+            if (block.findEntry(names[i & 15]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static int runScoped(ScopedSymbolTable scoped, String[] names, int[] ids, int lookups) {
+        int found = 0;
+        for (int i = 0; i < lookups; i++) {
+            if (scoped.findEntry(names[i & 15], ids[i & 15]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,98 @@
+import lib.twio.TwioBufferReader;
+import tomic.lexer.ILexicalParser;
+import tomic.lexer.impl.DefaultLexicalParser;
+import tomic.lexer.impl.DfaLexicalAnalyzer;
+import tomic.lexer.token.ITokenMapper;
+import tomic.lexer.token.impl.DefaultTokenMapper;
+import tomic.logger.debug.IDebugLogger;
+import tomic.logger.debug.impl.DumbLogger;
+import tomic.logger.error.IErrorLogger;
+import tomic.logger.error.impl.DumbErrorLogger;
+import tomic.parser.ast.SyntaxNode;
+import tomic.parser.ast.SyntaxTypes;
+import tomic.parser.ast.mapper.CompleteSyntaxMapper;
+import tomic.parser.ast.mapper.ISyntaxMapper;
+import tomic.parser.impl.ResilientSyntacticParser;
+
+public class StmtPredictionBenchmark {
+    // Counts statements starting with an identifier and the productions
+    // tried for them, and may disable prediction so that all productions
+    // are tried in turn.
+    private static class CountingParser extends ResilientSyntacticParser {
+        private final boolean prediction;
+        private int statements;
+        private int attempts;
+
+        CountingParser(ILexicalParser lexicalParser, ITokenMapper tokenMapper, ISyntaxMapper syntaxMapper,
+                       IErrorLogger errorLogger, IDebugLogger debugLogger, boolean prediction) {
+            super(lexicalParser, tokenMapper, syntaxMapper, errorLogger, debugLogger);
+            this.prediction = prediction;
+        }
+
+        @Override
+        protected SyntaxTypes predictStmt() {
+            statements++;
+            return prediction ? super.predictStmt() : SyntaxTypes.IN_STMT;
+        }
+
+        @Override
+        protected SyntaxNode parseStmtAlternative(SyntaxTypes type) {
+            attempts++;
+            return super.parseStmtAlternative(type);
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+        String source = generate(count);
+
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            parse(source, true);
+            parse(source, false);
+        }
+
+        report("speculative", source, false);
+        report("predicted", source, true);
+    }
+
+    private static void report(String name, String source, boolean prediction) {
+        long start = System.nanoTime();
+        var parser = parse(source, prediction);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-12s %8d statements %8.2f attempts/statement %8.2f ms%n",
+                name, parser.statements, (double) parser.attempts / parser.statements, elapsed / 1e6);
+    }
+
+    private static CountingParser parse(String source, boolean prediction) {
+        var mapper = new DefaultTokenMapper();
+        var lexicalParser = new DefaultLexicalParser(new DfaLexicalAnalyzer(mapper), new DumbErrorLogger(), new DumbLogger());
+        var parser = new CountingParser(lexicalParser, mapper, new CompleteSyntaxMapper(), new DumbErrorLogger(), new DumbLogger(), prediction);
+        parser.setReader(new TwioBufferReader(source.toCharArray(), source.length()));
+        if (parser.parse() == null) {
+            throw new IllegalStateException("Failed to parse benchmark source");
+        }
+        return parser;
+    }
+
+    // Mostly assignments, with some input and call statements.
+    private static String generate(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("int a[100][100];\n");
+        builder.append("void f(int x) { }\n");
+        builder.append("int main() {\n");
+        builder.append("    int i = 0, j = 1, k;\n");
+        for (int n = 0; n < count; n++) {
+            switch (n % 5) {
+                case 0, 1 -> builder.append("    i = i * 2 + j - (k % 3);\n");
+                case 2 -> builder.append("    a[i % 100][j + 1] = a[j][i];\n");
+                case 3 -> builder.append("    k = getint();\n");
+                default -> builder.append("    f(a[i][j] + 1);\n");
+            }
+        }
+        builder.append("    return 0;\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,60 @@
+import tomic.llvm.ir.LlvmContext;
+import tomic.llvm.ir.type.ArrayType;
+import tomic.llvm.ir.type.FunctionType;
+import tomic.llvm.ir.type.PointerType;
+import tomic.llvm.ir.type.Type;
+import tomic.llvm.ir.value.ConstantData;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Types asked for concurrently must still have one instance each, and
+ * so must integer constants.
+ */
+public class TypeInterningTest {
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        var context = new LlvmContext();
+        var pool = new ForkJoinPool(4);
+
+        Type[][] results = new Type[8][];
+        long start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, results.length).parallel().forEach(i -> results[i] = build(context, count))).join();
+        } finally {
+            pool.shutdown();
+        }
+        long time = System.nanoTime() - start;
+
+        for (var result : results) {
+            for (int j = 0; j < result.length; j++) {
+                if (result[j] != results[0][j]) {
+                    throw new IllegalStateException("Type " + j + " is not unique");
+                }
+            }
+        }
+        if (PointerType.get(ArrayType.get(ArrayType.get(context.getInt32Ty(), 4), 3)) != results[0][3 * 3 + 1]) {
+            throw new IllegalStateException("Type is not reused");
+        }
+        if (ConstantData.get(context.getInt32Ty(), 7) != ConstantData.get(context.getInt32Ty(), 7)
+                || ConstantData.get(context, true) == ConstantData.get(context.getInt32Ty(), 1)) {
+            throw new IllegalStateException("Constant is not unique");
+        }
+
+        System.out.printf("%d types %d times in %.2f ms%n", results[0].length, results.length, time / 1e6);
+    }
+
+    // Array, pointer and function type for each shape.
+    private static Type[] build(LlvmContext context, int count) {
+        var types = new Type[count * 3];
+        for (int i = 0; i < count; i++) {
+            var array = ArrayType.get(ArrayType.get(context.getInt32Ty(), i % 7 + 1), i);
+            types[i * 3] = array;
+            types[i * 3 + 1] = PointerType.get(array);
+            types[i * 3 + 2] = FunctionType.get(context.getInt32Ty(), List.of(types[i * 3 + 1], context.getInt32Ty()));
+        }
+        return types;
+    }
+}
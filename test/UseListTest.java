@@ -0,0 +1,64 @@
+import tomic.llvm.ir.LlvmContext;
+import tomic.llvm.ir.value.ConstantData;
+import tomic.llvm.ir.value.Value;
+import tomic.llvm.ir.value.inst.AllocaInst;
+import tomic.llvm.ir.value.inst.BinaryOperator;
+import tomic.llvm.ir.value.inst.LoadInst;
+
+import java.util.ArrayList;
+
+/**
+ * Operands are kept per slot, and use lists follow every change.
+ */
+public class UseListTest {
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+        var context = new LlvmContext();
+        var x = new LoadInst(new AllocaInst(context.getInt32Ty()));
+        var y = new LoadInst(new AllocaInst(context.getInt32Ty()));
+
+        // The same value in both slots.
+        var twice = new BinaryOperator(x, x, BinaryOperator.BinaryOpTypes.Add);
+        check(twice.getOperandCount() == 2, "two operands");
+        check(x.getUseCount() == 2 && x.getUsers().size() == 1, "two uses, one user");
+
+        twice.setOperand(1, y);
+        check(twice.getLeftOperand() == x && twice.getRightOperand() == y, "set one slot");
+        check(x.getUseCount() == 1 && y.getUseCount() == 1, "uses after set");
+
+        // Replace many uses at once.
+        var users = new ArrayList<BinaryOperator>();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            users.add(new BinaryOperator(x, ConstantData.get(context.getInt32Ty(), i), BinaryOperator.BinaryOpTypes.Mul));
+        }
+        x.replaceAllUsesWith(y);
+        long time = System.nanoTime() - start;
+
+        check(!x.hasUses(), "no uses left");
+        check(y.getUseCount() == count + 2, "uses moved");
+        check(y.getUsers().get(0) == twice && y.getUsers().get(1) == users.get(0), "user order kept");
+        for (var user : users) {
+            check(user.getLeftOperand() == y, "operand replaced");
+        }
+
+        users.forEach(BinaryOperator::removeOperands);
+        check(countUses(y) == 2 && y.getUseCount() == 2, "uses removed");
+
+        System.out.printf("%d uses added and replaced in %.2f ms%n", count, time / 1e6);
+    }
+
+    private static int countUses(Value value) {
+        int n = 0;
+        for (var use = value.getFirstUse(); use != null; use = use.getNext()) {
+            n++;
+        }
+        return n;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}